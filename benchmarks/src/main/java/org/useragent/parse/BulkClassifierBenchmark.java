@@ -0,0 +1,56 @@
+package org.useragent.parse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link BulkDeviceClassifier} over a batch built from the corpus, in which every User-Agent
+ * appears many times with a unique suffix on a share of the entries. Run with different {@code
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism} values to check how it scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkClassifierBenchmark {
+
+  @Param({"1000000"})
+  public int batchSize;
+
+  @Param({"0.01"})
+  public double uniqueShare;
+
+  private BulkDeviceClassifier classifier;
+
+  private String[] batch;
+
+  @Setup
+  public void setUp() {
+    classifier = new BulkDeviceClassifier();
+    List<String> corpus = UserAgentCorpus.load(UserAgentCorpus.ALL);
+    batch = new String[batchSize];
+    int uniqueEvery = (int) Math.round(1 / uniqueShare);
+    for (int i = 0; i < batchSize; i++) {
+      String userAgent = corpus.get(i % corpus.size());
+      batch[i] = i % uniqueEvery == 0 ? userAgent + " build/" + i : userAgent;
+    }
+  }
+
+  @Benchmark
+  public byte[] classify() {
+    return classifier.classify(batch);
+  }
+}
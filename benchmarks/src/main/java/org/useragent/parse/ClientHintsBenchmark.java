@@ -0,0 +1,68 @@
+package org.useragent.parse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chromium requests carrying {@code Sec-CH-UA-Mobile} and {@code Sec-CH-UA-Platform}, resolved
+ * from the hints and, with the client hints stage off, from the User-Agent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientHintsBenchmark {
+
+  @Param({"desktop", "android-phone"})
+  public String category;
+
+  private LiteDeviceResolver hintsResolver;
+
+  private LiteDeviceResolver userAgentResolver;
+
+  private HeaderMapRequest[] requests;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    hintsResolver = new LiteDeviceResolver();
+    userAgentResolver = new LiteDeviceResolver();
+    userAgentResolver.setClientHints(false);
+    boolean mobile = category.equals("android-phone");
+    List<String> userAgents = UserAgentCorpus.load(category);
+    requests = new HeaderMapRequest[userAgents.size()];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = new HeaderMapRequest(userAgents.get(i));
+      requests[i].addHeader(ClientHints.SEC_CH_UA_MOBILE, mobile ? "?1" : "?0");
+      requests[i].addHeader(ClientHints.SEC_CH_UA_PLATFORM, mobile ? "\"Android\"" : "\"Windows\"");
+    }
+  }
+
+  @Benchmark
+  public Device clientHints() {
+    HeaderMapRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    return hintsResolver.resolveDevice(request);
+  }
+
+  @Benchmark
+  public Device userAgent() {
+    HeaderMapRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    return userAgentResolver.resolveDevice(request);
+  }
+}
@@ -0,0 +1,62 @@
+package org.useragent.parse;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves a desktop request, which runs every mobile check, with a growing number of unrelated
+ * headers such as proxies add. The OperaMini header probe stays flat; the header scan grows with
+ * the number of headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderCountBenchmark {
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/120.0.0.0 Safari/537.36";
+
+  @Param({"0", "8", "32", "128"})
+  public int headerCount;
+
+  private LiteDeviceResolver probingResolver;
+
+  private LiteDeviceResolver scanningResolver;
+
+  private HeaderMapRequest request;
+
+  @Setup
+  public void setUp() {
+    probingResolver = new LiteDeviceResolver();
+    probingResolver.setOperaMiniHeaderScan(false);
+    scanningResolver = new LiteDeviceResolver();
+    request = new HeaderMapRequest(DESKTOP_USER_AGENT);
+    for (int i = 0; i < headerCount; i++) {
+      request.addHeader("X-Forwarded-Header-" + i, "value-" + i);
+    }
+  }
+
+  @Benchmark
+  public Device probe() {
+    return probingResolver.resolveDevice(request);
+  }
+
+  @Benchmark
+  public Device scan() {
+    return scanningResolver.resolveDevice(request);
+  }
+}
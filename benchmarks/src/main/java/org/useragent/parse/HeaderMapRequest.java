@@ -0,0 +1,36 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Request whose header lookups are plain {@link HashMap} gets, so that resolver benchmarks measure
+ * the resolver rather than the case-insensitive header map of {@link MockHttpServletRequest}.
+ */
+final class HeaderMapRequest extends HttpServletRequestWrapper {
+
+  private final Map<String, String> headers = new HashMap<>();
+
+  HeaderMapRequest(String userAgent) {
+    super(new MockHttpServletRequest());
+    headers.put("User-Agent", userAgent);
+  }
+
+  void addHeader(String name, String value) {
+    headers.put(name, value);
+  }
+
+  @Override
+  public String getHeader(String name) {
+    return headers.get(name);
+  }
+
+  @Override
+  public Enumeration<String> getHeaderNames() {
+    return Collections.enumeration(headers.keySet());
+  }
+}
@@ -0,0 +1,66 @@
+package org.useragent.parse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * The full {@link DeviceResolverHandlerInterceptor#preHandle} path, including the header lookups
+ * and attribute handling of Spring's mock requests. The requests are reused, so the device stored
+ * by the previous pass is removed first; otherwise the interceptor would not resolve again.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterceptorBenchmark {
+
+  @Param({"all", "desktop", "android-phone", "ios", "bot"})
+  public String category;
+
+  private DeviceResolverHandlerInterceptor interceptor;
+
+  private MockHttpServletRequest[] requests;
+
+  private MockHttpServletResponse response;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    interceptor = new DeviceResolverHandlerInterceptor();
+    List<String> userAgents = UserAgentCorpus.load(category);
+    requests = new MockHttpServletRequest[userAgents.size()];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = new MockHttpServletRequest("GET", "/");
+      requests[i].addHeader("User-Agent", userAgents.get(i));
+      requests[i].addHeader("Accept", "text/html,application/xhtml+xml,*/*;q=0.8");
+      requests[i].addHeader("Accept-Language", "en-US,en;q=0.9");
+      requests[i].addHeader("Host", "example.com");
+    }
+    response = new MockHttpServletResponse();
+  }
+
+  @Benchmark
+  public boolean preHandle() throws Exception {
+    MockHttpServletRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    // the interceptor skips requests that already carry a device
+    request.removeAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE);
+    return interceptor.preHandle(request, response, null);
+  }
+}
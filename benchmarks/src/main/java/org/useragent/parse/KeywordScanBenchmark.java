@@ -0,0 +1,90 @@
+package org.useragent.parse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the ways of finding the User-Agent keywords: a {@code toLowerCase()} copy searched with
+ * {@code String.contains} once per keyword, the keyword automaton stepping through every char,
+ * and the automaton behind the vectorized prefilter. The fork runs with {@code --add-modules
+ * jdk.incubator.vector}; setup fails if the prefilter is not available anyway.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class KeywordScanBenchmark {
+
+  @Param({"all", "desktop", "android-phone", "feature-phone", "bot", "long"})
+  public String category;
+
+  private String[] userAgents;
+
+  private List<String> keywords;
+
+  private CompiledRules automaton;
+
+  private CompiledRules vectorized;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver(Collections.<String>emptyList());
+    resolver.init();
+    keywords = new ArrayList<>(resolver.getMobileUserAgentKeywords());
+    keywords.addAll(resolver.getTabletUserAgentKeywords());
+    keywords.addAll(resolver.getBotUserAgentKeywords());
+    automaton = LiteUserAgentResolver.compileDefaultRules();
+    vectorized = automaton.withVectorPrefilter(true);
+    if (vectorized.prefilter == null) {
+      throw new IllegalStateException("The vector prefilter is not available");
+    }
+    userAgents = UserAgentCorpus.load(category).toArray(new String[0]);
+  }
+
+  @Benchmark
+  public int contains() {
+    String userAgent = nextUserAgent().toLowerCase();
+    int hits = 0;
+    for (int i = 0, size = keywords.size(); i < size; i++) {
+      if (userAgent.contains(keywords.get(i))) {
+        hits |= 1 << (i & 31);
+      }
+    }
+    return hits;
+  }
+
+  @Benchmark
+  public int automaton() {
+    String userAgent = nextUserAgent();
+    return automaton.scanUserAgent(userAgent, userAgent.length());
+  }
+
+  @Benchmark
+  public int vectorPrefilter() {
+    String userAgent = nextUserAgent();
+    return vectorized.scanUserAgent(userAgent, userAgent.length());
+  }
+
+  private String nextUserAgent() {
+    String userAgent = userAgents[next];
+    next = next + 1 == userAgents.length ? 0 : next + 1;
+    return userAgent;
+  }
+}
@@ -0,0 +1,63 @@
+package org.useragent.parse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the packed {@link PrefixTable} lookup with the substring, {@code toLowerCase()} and
+ * {@code List.contains} check {@link LiteDeviceResolver} used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MobilePrefixBenchmark {
+
+  @Param({
+    "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36",
+    "Nokia6300/2.0 (05.00) Profile/MIDP-2.0 Configuration/CLDC-1.1",
+    "xda-SmartPhone/1.0"
+  })
+  public String userAgent;
+
+  private List<String> prefixList;
+
+  private PrefixTable prefixTable;
+
+  @Setup
+  public void setUp() {
+    // a stock resolver loads its rules from the snapshot and leaves the signature lists empty
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver(Collections.<String>emptyList());
+    resolver.init();
+    prefixList = resolver.getMobileUserAgentPrefixes();
+    if (prefixList.isEmpty()) {
+      throw new IllegalStateException("No mobile prefixes registered");
+    }
+    prefixTable = PrefixTable.compile(prefixList);
+  }
+
+  @Benchmark
+  public boolean listContains() {
+    return userAgent.length() >= 4
+        && prefixList.contains(userAgent.substring(0, 4).toLowerCase());
+  }
+
+  @Benchmark
+  public boolean prefixTable() {
+    return prefixTable.matches(userAgent);
+  }
+}
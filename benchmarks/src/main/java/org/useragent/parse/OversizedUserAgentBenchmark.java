@@ -0,0 +1,69 @@
+package org.useragent.parse;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves oversized User-Agents, with the default cap on the searched length and without a cap.
+ * The User-Agents start like a desktop browser and are padded either with filler or with near
+ * misses of the keywords, which keep the automaton away from its initial state. Capped, the time
+ * stops growing once the User-Agent is longer than the cap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OversizedUserAgentBenchmark {
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/89.0.4389.82 Safari/537.36";
+
+  @Param({"256", "1024", "4096", "16384"})
+  public int length;
+
+  @Param({"filler", "near-misses"})
+  public String padding;
+
+  private LiteDeviceResolver capped;
+
+  private LiteDeviceResolver uncapped;
+
+  private HeaderMapRequest request;
+
+  @Setup
+  public void setUp() {
+    capped = new LiteDeviceResolver();
+    uncapped = new LiteDeviceResolver();
+    uncapped.setMaxUserAgentLength(Integer.MAX_VALUE);
+    String pattern = "filler".equals(padding) ? " x" : " MobilAndroiBlackberrIpo";
+    StringBuilder userAgent = new StringBuilder(DESKTOP_USER_AGENT);
+    while (userAgent.length() < length) {
+      userAgent.append(pattern);
+    }
+    userAgent.setLength(length);
+    request = new HeaderMapRequest(userAgent.toString());
+  }
+
+  @Benchmark
+  public Device capped() {
+    return capped.resolveDevice(request);
+  }
+
+  @Benchmark
+  public Device uncapped() {
+    return uncapped.resolveDevice(request);
+  }
+}
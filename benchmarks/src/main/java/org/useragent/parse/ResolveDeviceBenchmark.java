@@ -0,0 +1,86 @@
+package org.useragent.parse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LiteDeviceResolver#resolveDevice} over the bundled User-Agent corpus: plain, with adaptive
+ * rule ordering and wrapped in a {@link MeteredDeviceResolver}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolveDeviceBenchmark {
+
+  @Param({
+    "all",
+    "desktop",
+    "android-phone",
+    "android-tablet",
+    "ios",
+    "kindle",
+    "feature-phone",
+    "bot",
+    "long"
+  })
+  public String category;
+
+  private LiteDeviceResolver resolver;
+
+  private LiteDeviceResolver adaptiveResolver;
+
+  private MeteredDeviceResolver meteredResolver;
+
+  private HeaderMapRequest[] requests;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    resolver = new LiteDeviceResolver();
+    adaptiveResolver = new LiteDeviceResolver();
+    adaptiveResolver.setAdaptiveRuleOrdering(true);
+    meteredResolver = new MeteredDeviceResolver(new LiteDeviceResolver(), new SimpleMeterRegistry());
+    List<String> userAgents = UserAgentCorpus.load(category);
+    requests = new HeaderMapRequest[userAgents.size()];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = new HeaderMapRequest(userAgents.get(i));
+    }
+  }
+
+  @Benchmark
+  public Device resolveDevice() {
+    HeaderMapRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    return resolver.resolveDevice(request);
+  }
+
+  @Benchmark
+  public Device resolveDeviceAdaptive() {
+    HeaderMapRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    return adaptiveResolver.resolveDevice(request);
+  }
+
+  @Benchmark
+  public Device resolveDeviceMetered() {
+    HeaderMapRequest request = requests[next];
+    next = next + 1 == requests.length ? 0 : next + 1;
+    return meteredResolver.resolveDevice(request);
+  }
+}
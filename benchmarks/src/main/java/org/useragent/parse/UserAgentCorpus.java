@@ -0,0 +1,48 @@
+package org.useragent.parse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The bundled corpus of real-world User-Agents, grouped by category. */
+final class UserAgentCorpus {
+
+  /** Category name that selects the whole corpus. */
+  static final String ALL = "all";
+
+  private static final String RESOURCE = "/user-agents.tsv";
+
+  private UserAgentCorpus() {}
+
+  /** Returns the User-Agents of the given category, in corpus order. */
+  static List<String> load(String category) {
+    List<String> userAgents = new ArrayList<>();
+    try (InputStream in = UserAgentCorpus.class.getResourceAsStream(RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing corpus resource " + RESOURCE);
+      }
+      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        int tab = line.indexOf('\t');
+        if (ALL.equals(category) || line.substring(0, tab).equals(category)) {
+          userAgents.add(line.substring(tab + 1));
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    if (userAgents.isEmpty()) {
+      throw new IllegalArgumentException("No User-Agents in category " + category);
+    }
+    return userAgents;
+  }
+}
@@ -0,0 +1,112 @@
+package org.useragent.parse;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Load test of {@link DeviceResolverHandlerInterceptor} on a pool of platform threads the size of
+ * Tomcat's default pool, and on one virtual thread per request. Every invocation serves a burst of
+ * requests; each one resolves its device through a shared interceptor and then optionally blocks
+ * for a while, as a handler waiting on I/O would.
+ *
+ * <p>Virtual threads need Java 21. The executor is created reflectively so that the benchmarks
+ * still compile for Java 17; on older runtimes the virtual variant fails in its setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+  private static final int REQUESTS = 10_000;
+
+  private static final int PLATFORM_THREADS = 200;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"0", "1"})
+  public int blockingMillis;
+
+  private ExecutorService executor;
+
+  private DeviceResolverHandlerInterceptor interceptor;
+
+  private MockHttpServletResponse response;
+
+  private String[] userAgents;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    if ("virtual".equals(threads)) {
+      executor =
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } else {
+      executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+    interceptor = new DeviceResolverHandlerInterceptor(new LiteDeviceResolver());
+    response = new MockHttpServletResponse();
+    List<String> corpus = UserAgentCorpus.load(UserAgentCorpus.ALL);
+    userAgents = corpus.toArray(new String[0]);
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public void serveRequests() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      String userAgent = userAgents[i % userAgents.length];
+      executor.execute(
+          () -> {
+            try {
+              serve(userAgent);
+            } finally {
+              done.countDown();
+            }
+          });
+    }
+    done.await();
+  }
+
+  private void serve(String userAgent) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("User-Agent", userAgent);
+    try {
+      interceptor.preHandle(request, response, null);
+      DeviceUtils.getCurrentDevice(request);
+      if (blockingMillis > 0) {
+        Thread.sleep(blockingMillis);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Adds an {@code Accept-CH} header to responses asking browsers to send the {@link ClientHints}
+ * that {@link LiteDeviceResolver} reads. Responses that already carry an {@code Accept-CH} header
+ * are left alone.
+ */
+public class AcceptClientHintsInterceptor implements HandlerInterceptor {
+
+  public static final String ACCEPT_CH = "Accept-CH";
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws Exception {
+    if (!response.containsHeader(ACCEPT_CH)) {
+      response.setHeader(ACCEPT_CH, ClientHints.ACCEPT_CH_VALUE);
+    }
+    return true;
+  }
+}
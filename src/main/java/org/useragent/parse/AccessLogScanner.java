@@ -0,0 +1,244 @@
+package org.useragent.parse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the devices found in an access log in the NCSA combined format, where the User-Agent is
+ * the last quoted field of each line. Lines in the common format, which have no User-Agent, are
+ * counted separately.
+ *
+ * <p>The file is memory-mapped in chunks that end on line boundaries, and the chunks are scanned in
+ * parallel. The User-Agent field is located and looked up in place: every chunk keeps a table of
+ * the raw User-Agent bytes it has already classified, so a String is only built once per distinct
+ * User-Agent rather than once per line.
+ *
+ * <p>{@link AccessLogScannerMain} runs it from the command line.
+ */
+public class AccessLogScanner {
+
+  /** Default size of the chunks the file is split into. */
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+  /** Distinct User-Agents remembered per chunk; further ones are classified every time. */
+  private static final int MAX_DISTINCT_PER_CHUNK = 1 << 16;
+
+  private static final int MAX_USER_AGENT_LENGTH = 8192;
+
+  private final UserAgentResolver userAgentResolver;
+
+  private final int chunkSize;
+
+  public AccessLogScanner() {
+    this(new LiteUserAgentResolver());
+  }
+
+  public AccessLogScanner(UserAgentResolver userAgentResolver) {
+    this(userAgentResolver, DEFAULT_CHUNK_SIZE);
+  }
+
+  public AccessLogScanner(UserAgentResolver userAgentResolver, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive");
+    }
+    this.userAgentResolver = userAgentResolver;
+    this.chunkSize = chunkSize;
+  }
+
+  /** Scans the given log file and returns the device counts of its lines. */
+  public DeviceBreakdown scan(Path log) throws IOException {
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+      long[] boundaries = chunkBoundaries(channel);
+      try {
+        return IntStream.range(0, boundaries.length - 1)
+            .parallel()
+            .mapToObj(i -> scanChunk(channel, boundaries[i], boundaries[i + 1]))
+            .reduce(DeviceBreakdown::merge)
+            .orElseGet(() -> new DeviceBreakdown(new long[DeviceCodes.COUNT], 0));
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+    }
+  }
+
+  /** Splits the file into chunks of about the chunk size that start at the beginning of a line. */
+  private long[] chunkBoundaries(FileChannel channel) throws IOException {
+    long size = channel.size();
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    ByteBuffer window = ByteBuffer.allocate(4096);
+    long position = 0;
+    while (size - position > chunkSize) {
+      long candidate = position + chunkSize;
+      long lineStart = -1;
+      while (lineStart < 0 && candidate < size) {
+        window.clear();
+        int read = channel.read(window, candidate);
+        for (int i = 0; i < read; i++) {
+          if (window.get(i) == '\n') {
+            lineStart = candidate + i + 1;
+            break;
+          }
+        }
+        candidate += Math.max(read, 0);
+      }
+      if (lineStart < 0 || lineStart >= size) {
+        break;
+      }
+      boundaries.add(lineStart);
+      position = lineStart;
+    }
+    boundaries.add(size);
+    return boundaries.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private DeviceBreakdown scanChunk(FileChannel channel, long start, long end) {
+    MappedByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    long[] counts = new long[DeviceCodes.COUNT];
+    long withoutUserAgent = 0;
+    DistinctUserAgents distinct = new DistinctUserAgents();
+    byte[] scratch = new byte[MAX_USER_AGENT_LENGTH];
+    int limit = buffer.limit();
+    int lineStart = 0;
+    while (lineStart < limit) {
+      int lineEnd = lineStart;
+      while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      if (lineEnd > lineStart) {
+        int code = classifyLine(buffer, lineStart, lineEnd, distinct, scratch);
+        if (code < 0) {
+          withoutUserAgent++;
+        } else {
+          counts[code]++;
+        }
+      }
+      lineStart = lineEnd + 1;
+    }
+    return new DeviceBreakdown(counts, withoutUserAgent);
+  }
+
+  /** Returns the device code of the line, or -1 if the line has no User-Agent field. */
+  private int classifyLine(
+      ByteBuffer buffer, int lineStart, int lineEnd, DistinctUserAgents distinct, byte[] scratch) {
+    int end = lineEnd;
+    while (end > lineStart && isWhitespace(buffer.get(end - 1))) {
+      end--;
+    }
+    if (end - lineStart < 2 || buffer.get(end - 1) != '"') {
+      return -1;
+    }
+    int fieldEnd = end - 1;
+    int quote = fieldEnd - 1;
+    while (quote >= lineStart
+        && (buffer.get(quote) != '"' || isEscaped(buffer, lineStart, quote))) {
+      quote--;
+    }
+    if (quote < lineStart) {
+      return -1;
+    }
+    int length = Math.min(fieldEnd - (quote + 1), scratch.length);
+    buffer.get(quote + 1, scratch, 0, length);
+    if (length == 0 || (length == 1 && scratch[0] == '-')) {
+      return -1;
+    }
+
+    int hash = 1;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + scratch[i];
+    }
+    int code = distinct.find(scratch, length, hash);
+    if (code < 0) {
+      String userAgent = new String(scratch, 0, length, StandardCharsets.UTF_8);
+      code = DeviceCodes.encode(userAgentResolver.resolveDevice(userAgent));
+      distinct.put(Arrays.copyOf(scratch, length), hash, (byte) code);
+    }
+    return code;
+  }
+
+  /** True if the char at the index is escaped, that is preceded by an odd number of backslashes. */
+  private static boolean isEscaped(ByteBuffer buffer, int lineStart, int index) {
+    int backslashes = 0;
+    while (index - backslashes > lineStart && buffer.get(index - backslashes - 1) == '\\') {
+      backslashes++;
+    }
+    return (backslashes & 1) != 0;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\r' || b == '\t';
+  }
+
+  /** Open-addressing table of raw User-Agent bytes to device codes. */
+  private static final class DistinctUserAgents {
+
+    private int[] hashes = new int[1024];
+
+    private byte[][] keys = new byte[1024][];
+
+    private byte[] codes = new byte[1024];
+
+    private int size;
+
+    int find(byte[] key, int length, int hash) {
+      int mask = keys.length - 1;
+      for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+        if (hashes[i] == hash && Arrays.equals(keys[i], 0, keys[i].length, key, 0, length)) {
+          return codes[i];
+        }
+      }
+      return -1;
+    }
+
+    void put(byte[] key, int hash, byte code) {
+      if (size >= MAX_DISTINCT_PER_CHUNK) {
+        return;
+      }
+      if (2 * (size + 1) > keys.length) {
+        resize();
+      }
+      insert(key, hash, code);
+      size++;
+    }
+
+    private void insert(byte[] key, int hash, byte code) {
+      int mask = keys.length - 1;
+      int i = hash & mask;
+      while (keys[i] != null) {
+        i = (i + 1) & mask;
+      }
+      hashes[i] = hash;
+      keys[i] = key;
+      codes[i] = code;
+    }
+
+    private void resize() {
+      int[] oldHashes = hashes;
+      byte[][] oldKeys = keys;
+      byte[] oldCodes = codes;
+      hashes = new int[oldKeys.length * 2];
+      keys = new byte[oldKeys.length * 2][];
+      codes = new byte[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != null) {
+          insert(oldKeys[i], oldHashes[i], oldCodes[i]);
+        }
+      }
+    }
+  }
+}
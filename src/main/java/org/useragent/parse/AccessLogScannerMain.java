@@ -0,0 +1,25 @@
+package org.useragent.parse;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Command-line tool that prints the device counts of access logs with {@link AccessLogScanner}.
+ * Run with the log files as arguments.
+ */
+public final class AccessLogScannerMain {
+
+  private AccessLogScannerMain() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: AccessLogScannerMain <access-log>...");
+      System.exit(1);
+    }
+    AccessLogScanner scanner = new AccessLogScanner();
+    for (String arg : args) {
+      System.out.println(arg);
+      System.out.println(scanner.scan(Paths.get(arg)));
+    }
+  }
+}
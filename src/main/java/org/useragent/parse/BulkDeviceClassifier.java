@@ -0,0 +1,130 @@
+package org.useragent.parse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Classifies large batches of User-Agents, such as the entries of historical access logs, with a
+ * {@link UserAgentResolver}. Each distinct User-Agent is resolved only once per call, the work is
+ * spread over the common fork/join pool, and the result is one byte per input.
+ *
+ * <p>A code combines the {@link DeviceType} and {@link DevicePlatform} of the device; use {@link
+ * #typeOf(byte)} and {@link #platformOf(byte)} to decode it. A {@code null} User-Agent classifies
+ * as a normal device with an unknown platform.
+ *
+ * <p>User-Agents from an iterable or stream are read and classified in batches of {@value
+ * #BATCH_SIZE}, so only one batch of them is held in memory at a time. Once a call has seen more
+ * than {@value #MAX_DISTINCT} distinct User-Agents, they are forgotten before the next batch, so a
+ * User-Agent may then be resolved again. To classify more User-Agents than a byte array can hold,
+ * write the codes to an {@link OutputStream} with {@link #classify(Stream, OutputStream)}.
+ */
+public class BulkDeviceClassifier {
+
+  /** Number of User-Agents of an iterable or stream that are classified together. */
+  static final int BATCH_SIZE = 64 * 1024;
+
+  /** Number of distinct User-Agents remembered before the memo is emptied between batches. */
+  private static final int MAX_DISTINCT = 100_000;
+
+  private final UserAgentResolver userAgentResolver;
+
+  public BulkDeviceClassifier() {
+    this(new LiteUserAgentResolver());
+  }
+
+  public BulkDeviceClassifier(UserAgentResolver userAgentResolver) {
+    this.userAgentResolver = userAgentResolver;
+  }
+
+  /** Classifies every User-Agent of the array; the result has one code per element. */
+  public byte[] classify(String[] userAgents) {
+    byte[] codes = new byte[userAgents.length];
+    classify(userAgents, userAgents.length, codes, new ConcurrentHashMap<>());
+    return codes;
+  }
+
+  /** Classifies every User-Agent of the iterable, in iteration order. */
+  public byte[] classify(Iterable<String> userAgents) {
+    return classify(userAgents.iterator());
+  }
+
+  /** Classifies every User-Agent of the stream, in encounter order. */
+  public byte[] classify(Stream<String> userAgents) {
+    return classify(userAgents.iterator());
+  }
+
+  /**
+   * Classifies every User-Agent of the stream, in encounter order, and writes one code per
+   * User-Agent to the output stream.
+   *
+   * @return the number of codes written
+   */
+  public long classify(Stream<String> userAgents, OutputStream codes) throws IOException {
+    return classify(userAgents.iterator(), codes);
+  }
+
+  /** Returns the device type of a code returned by {@code classify}. */
+  public static DeviceType typeOf(byte code) {
+    return DeviceCodes.typeOf(code);
+  }
+
+  /** Returns the device platform of a code returned by {@code classify}. */
+  public static DevicePlatform platformOf(byte code) {
+    return DeviceCodes.platformOf(code);
+  }
+
+  private byte[] classify(Iterator<String> userAgents) {
+    ByteArrayOutputStream codes = new ByteArrayOutputStream();
+    try {
+      classify(userAgents, codes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex); // not thrown by a ByteArrayOutputStream
+    }
+    return codes.toByteArray();
+  }
+
+  private long classify(Iterator<String> userAgents, OutputStream codes) throws IOException {
+    String[] batch = new String[BATCH_SIZE];
+    byte[] batchCodes = new byte[BATCH_SIZE];
+    ConcurrentHashMap<String, Byte> distinct = new ConcurrentHashMap<>();
+    long count = 0;
+    while (userAgents.hasNext()) {
+      int length = 0;
+      while (length < BATCH_SIZE && userAgents.hasNext()) {
+        batch[length++] = userAgents.next();
+      }
+      if (distinct.size() > MAX_DISTINCT) {
+        distinct.clear();
+      }
+      classify(batch, length, batchCodes, distinct);
+      codes.write(batchCodes, 0, length);
+      count += length;
+    }
+    return count;
+  }
+
+  private void classify(
+      String[] userAgents, int length, byte[] codes, ConcurrentHashMap<String, Byte> distinct) {
+    IntStream.range(0, length)
+        .parallel()
+        .forEach(i -> codes[i] = classify(userAgents[i], distinct));
+  }
+
+  private byte classify(String userAgent, ConcurrentHashMap<String, Byte> distinct) {
+    // a missing User-Agent resolves like an empty one, and the map does not take null keys
+    String key = userAgent != null ? userAgent : "";
+    Byte code = distinct.get(key);
+    if (code == null) {
+      code =
+          distinct.computeIfAbsent(
+              key, k -> DeviceCodes.encode(userAgentResolver.resolveDevice(k)));
+    }
+    return code;
+  }
+}
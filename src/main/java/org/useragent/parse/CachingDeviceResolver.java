@@ -0,0 +1,479 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link DeviceResolver} decorator that caches resolved devices by User-Agent. Besides the
+ * User-Agent the cache key holds the other request inputs {@link LiteDeviceResolver} looks at (the
+ * presence of the {@code x-wap-profile} and {@code Profile} headers, an {@code Accept} header
+ * containing "wap", the OperaMini headers and the {@link ClientHints}), so a cached device is only
+ * reused for requests the delegate would have resolved the same way. OperaMini headers are probed
+ * the way a {@link LiteUserAgentResolver} delegate probes them; for other delegates every header
+ * name containing "OperaMini" counts. The cache is emptied when anything that decides how a {@link
+ * LiteUserAgentResolver} delegate resolves changes: its rules, the switches for its optional
+ * stages or its maximum User-Agent length. A stock {@link LiteUserAgentResolver} or {@link
+ * LiteDeviceResolver} delegate only looks at the first {@link
+ * LiteUserAgentResolver#getMaxUserAgentLength() maximum length} chars of the User-Agent, so longer
+ * User-Agents are cached by that prefix, which also bounds the memory a cached entry takes.
+ * Subclasses may look at the whole User-Agent, so for them it is the key.
+ *
+ * <p>The cache holds at most {@code maximumSize} entries. Once it is full, a new entry is only
+ * admitted if it has been requested more often recently than a sampled victim, which keeps the
+ * frequent User-Agents cached when the traffic contains a long tail of one-off values. Lookups
+ * never lock; adding an entry takes a lock, but a request that finds it taken just skips caching.
+ * Hits are recorded in a striped buffer and counted in batches by the thread that holds the lock,
+ * so requests for a hot User-Agent do not all update the same counters.
+ *
+ * <p>The most frequent entries can be {@link #writeSnapshot written} to a file, for example on
+ * shutdown, and {@link #loadSnapshot loaded} again on startup so that a new instance does not start
+ * with an empty cache. A snapshot records a fingerprint of the rules of the {@link
+ * LiteUserAgentResolver} delegate; if the rules changed in between, the snapshotted requests are
+ * resolved again with the current rules instead of reusing the stored devices.
+ */
+public class CachingDeviceResolver implements DeviceResolver {
+
+  /** Default maximum number of cached entries. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private static final int EVICTION_SAMPLES = 8;
+
+  private static final int SNAPSHOT_MAGIC = 0x55414353; // "UACS"
+
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private static final int WAP_PROFILE_SIGNAL = 1;
+  private static final int PROFILE_SIGNAL = 1 << 1;
+  private static final int ACCEPT_WAP_SIGNAL = 1 << 2;
+  private static final int OPERA_MINI_SIGNAL = 1 << 3;
+  private static final int MOBILE_HINT_SIGNAL = 1 << 4;
+  private static final int NOT_MOBILE_HINT_SIGNAL = 1 << 5;
+  private static final int PLATFORM_HINT_SHIFT = 6;
+
+  private final DeviceResolver delegate;
+
+  /** The delegate if it is a {@link LiteUserAgentResolver}, otherwise {@code null}. */
+  private final LiteUserAgentResolver liteDelegate;
+
+  /**
+   * Whether the delegate is a stock {@link LiteUserAgentResolver}, which only looks at the first
+   * maximum length chars of the User-Agent.
+   */
+  private final boolean stockDelegate;
+
+  private final int maximumSize;
+
+  private final ConcurrentHashMap<CacheKey, Device> entries;
+
+  private final FrequencySketch sketch;
+
+  /** Keys of cache hits not yet counted in the sketch; drained under the eviction lock. */
+  private final ReadBuffer readBuffer = new ReadBuffer();
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /** Keys in insertion slots, used to sample eviction victims; guarded by the eviction lock. */
+  private final CacheKey[] slots;
+
+  private int size;
+
+  /**
+   * {@link LiteUserAgentResolver#resolutionFingerprint() Resolution fingerprint} of the lite
+   * delegate the cached entries were resolved with, 0 for other delegates; guarded by the lock.
+   */
+  private volatile long cachedFingerprint;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder evictionCount = new LongAdder();
+
+  public CachingDeviceResolver(DeviceResolver delegate) {
+    this(delegate, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public CachingDeviceResolver(DeviceResolver delegate, int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("maximumSize must be positive");
+    }
+    this.delegate = delegate;
+    this.liteDelegate =
+        delegate instanceof LiteUserAgentResolver ? (LiteUserAgentResolver) delegate : null;
+    this.stockDelegate = liteDelegate != null && liteDelegate.isStockResolver();
+    this.maximumSize = maximumSize;
+    this.entries = new ConcurrentHashMap<>(maximumSize);
+    this.sketch = new FrequencySketch(maximumSize);
+    this.slots = new CacheKey[maximumSize];
+    this.cachedFingerprint = resolutionFingerprint();
+  }
+
+  public Device resolveDevice(HttpServletRequest request) {
+    String userAgent = request.getHeader("User-Agent");
+    if (userAgent == null) {
+      return delegate.resolveDevice(request);
+    }
+    long fingerprint = resolutionFingerprint();
+    if (fingerprint != cachedFingerprint && !invalidate(fingerprint)) {
+      return delegate.resolveDevice(request);
+    }
+    if (stockDelegate && userAgent.length() > liteDelegate.getMaxUserAgentLength()) {
+      userAgent = userAgent.substring(0, liteDelegate.getMaxUserAgentLength());
+    }
+    CacheKey key = new CacheKey(userAgent, headerSignals(request));
+    Device device = entries.get(key);
+    if (device != null) {
+      hitCount.increment();
+      if (readBuffer.record(key) && evictionLock.tryLock()) {
+        try {
+          readBuffer.drain(sketch::increment);
+        } finally {
+          evictionLock.unlock();
+        }
+      }
+      return device;
+    }
+    missCount.increment();
+    sketch.increment(key);
+    device = delegate.resolveDevice(request);
+    if (evictionLock.tryLock()) {
+      try {
+        readBuffer.drain(sketch::increment);
+        if (fingerprint == cachedFingerprint) {
+          admit(key, device);
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return device;
+  }
+
+  /** Number of requests answered from the cache. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** Number of requests passed on to the delegate resolver. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** Number of entries removed to make room for more frequent ones. */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** Number of entries currently cached. */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Writes the most frequent cached entries to a file, replacing it. The file is written next to
+   * the target and moved into place, so a concurrent reader never sees a partial snapshot.
+   *
+   * @param file the snapshot file
+   * @param maximumEntries the maximum number of entries written
+   * @return the number of entries written
+   */
+  public int writeSnapshot(Path file, int maximumEntries) throws IOException {
+    long current = resolutionFingerprint();
+    long fingerprint = liteDelegate != null && current == cachedFingerprint ? current : 0;
+    evictionLock.lock();
+    try {
+      readBuffer.drain(sketch::increment);
+    } finally {
+      evictionLock.unlock();
+    }
+    List<Map.Entry<CacheKey, Device>> top = new ArrayList<>(entries.entrySet());
+    top.sort(Comparator.comparingInt(entry -> -sketch.frequency(entry.getKey())));
+    int count = Math.min(top.size(), maximumEntries);
+
+    Path temporary =
+        Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(fingerprint);
+        out.writeInt(count);
+        for (Map.Entry<CacheKey, Device> entry : top.subList(0, count)) {
+          CacheKey key = entry.getKey();
+          byte[] userAgent = key.userAgent.getBytes(StandardCharsets.UTF_8);
+          out.writeInt(userAgent.length);
+          out.write(userAgent);
+          out.writeInt(key.signals);
+          out.writeByte(DeviceCodes.encode(entry.getValue()));
+          out.writeByte(sketch.frequency(key));
+        }
+      }
+      Files.move(
+          temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return count;
+  }
+
+  /**
+   * Loads the entries of a snapshot written by {@link #writeSnapshot}, along with how often they
+   * were requested. If the delegate's rules or switches differ from those the snapshot was written
+   * with, or the delegate is a subclass that may return devices of its own, every entry is resolved
+   * again by the delegate from the User-Agent and the headers the entry was cached for. Snapshots
+   * can only be checked against a {@link LiteUserAgentResolver} delegate, so nothing is loaded for
+   * other delegates.
+   *
+   * @return the number of entries loaded, 0 if the file does not exist
+   * @throws IOException if the file cannot be read, is not a snapshot of this version or is
+   *     corrupt
+   */
+  public int loadSnapshot(Path file) throws IOException {
+    if (liteDelegate == null) {
+      return 0;
+    }
+    DataInputStream in;
+    try {
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    } catch (NoSuchFileException ex) {
+      return 0;
+    }
+    try (in) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+        throw new IOException("Not a device cache snapshot: " + file);
+      }
+      long fingerprint = in.readLong();
+      int count = in.readInt();
+      long size = Files.size(file);
+      if (count < 0 || count > size) {
+        throw new IOException("Corrupt device cache snapshot: " + file);
+      }
+      evictionLock.lock();
+      try {
+        CompiledRules rules = liteDelegate.compiledRules();
+        long current = resolutionFingerprint();
+        if (current != cachedFingerprint) {
+          clear(current);
+        }
+        // only a stock delegate is known to return the shared devices the codes decode to
+        boolean stale = fingerprint != current || !stockDelegate;
+        for (int i = 0; i < count; i++) {
+          int length = in.readInt();
+          if (length < 0 || length > size) {
+            throw new IOException("Corrupt device cache snapshot: " + file);
+          }
+          byte[] userAgent = new byte[length];
+          in.readFully(userAgent);
+          CacheKey key = new CacheKey(new String(userAgent, StandardCharsets.UTF_8), in.readInt());
+          int code = in.readByte();
+          int frequency = in.readByte();
+          if (code < 0 || code >= DeviceCodes.COUNT) {
+            throw new IOException("Corrupt device cache snapshot: " + file);
+          }
+          Device device =
+              stale
+                  ? liteDelegate.resolveDevice(
+                      key.userAgent, headersOf(key.signals, rules), HeaderAccessor.forMap())
+                  : DeviceCodes.decode(code);
+          for (int j = 0; j < frequency; j++) {
+            sketch.increment(key);
+          }
+          admit(key, device);
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+      return count;
+    }
+  }
+
+  private long resolutionFingerprint() {
+    return liteDelegate != null ? liteDelegate.resolutionFingerprint() : 0;
+  }
+
+  /**
+   * Empties the cache after the resolution fingerprint of the delegate changed. Returns false
+   * without waiting if another thread holds the lock, in which case the caller bypasses the cache.
+   */
+  private boolean invalidate(long fingerprint) {
+    if (!evictionLock.tryLock()) {
+      return false;
+    }
+    try {
+      if (fingerprint != cachedFingerprint) {
+        clear(fingerprint);
+      }
+      return true;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Empties the cache for entries resolved under the given fingerprint; needs the lock. */
+  private void clear(long fingerprint) {
+    entries.clear();
+    Arrays.fill(slots, null);
+    size = 0;
+    cachedFingerprint = fingerprint;
+  }
+
+  private void admit(CacheKey key, Device device) {
+    if (entries.containsKey(key)) {
+      return;
+    }
+    if (size < maximumSize) {
+      slots[size++] = key;
+      entries.put(key, device);
+      return;
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int victimSlot = random.nextInt(maximumSize);
+    int victimFrequency = sketch.frequency(slots[victimSlot]);
+    for (int i = 1; i < EVICTION_SAMPLES; i++) {
+      int slot = random.nextInt(maximumSize);
+      int frequency = sketch.frequency(slots[slot]);
+      if (frequency < victimFrequency) {
+        victimSlot = slot;
+        victimFrequency = frequency;
+      }
+    }
+    if (sketch.frequency(key) > victimFrequency) {
+      entries.remove(slots[victimSlot]);
+      slots[victimSlot] = key;
+      entries.put(key, device);
+      evictionCount.increment();
+    }
+  }
+
+  private int headerSignals(HttpServletRequest request) {
+    int signals = 0;
+    if (request.getHeader("x-wap-profile") != null) {
+      signals |= WAP_PROFILE_SIGNAL;
+    }
+    if (request.getHeader("Profile") != null) {
+      signals |= PROFILE_SIGNAL;
+    }
+    String accept = request.getHeader("Accept");
+    if (accept != null && accept.contains("wap")) {
+      signals |= ACCEPT_WAP_SIGNAL;
+    }
+    if (hasOperaMiniHeader(request)) {
+      signals |= OPERA_MINI_SIGNAL;
+    }
+    String mobileHint = request.getHeader(ClientHints.SEC_CH_UA_MOBILE);
+    if (mobileHint != null) {
+      if (ClientHints.isMobile(mobileHint)) {
+        signals |= MOBILE_HINT_SIGNAL;
+      } else if (ClientHints.isNotMobile(mobileHint)) {
+        signals |= NOT_MOBILE_HINT_SIGNAL;
+      }
+      signals |=
+          ClientHints.platformOf(request.getHeader(ClientHints.SEC_CH_UA_PLATFORM))
+              << PLATFORM_HINT_SHIFT;
+    }
+    return signals;
+  }
+
+  /** Recreates headers that produce the given signals, to resolve a snapshotted entry again. */
+  private static Map<String, String> headersOf(int signals, CompiledRules rules) {
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    if ((signals & WAP_PROFILE_SIGNAL) != 0) {
+      headers.put("x-wap-profile", "");
+    }
+    if ((signals & PROFILE_SIGNAL) != 0) {
+      headers.put("Profile", "");
+    }
+    if ((signals & ACCEPT_WAP_SIGNAL) != 0) {
+      headers.put("Accept", "wap");
+    }
+    if ((signals & OPERA_MINI_SIGNAL) != 0) {
+      headers.put(
+          rules.operaMiniHeaders.length > 0 ? rules.operaMiniHeaders[0] : "X-OperaMini-Phone", "");
+    }
+    if ((signals & MOBILE_HINT_SIGNAL) != 0) {
+      headers.put(ClientHints.SEC_CH_UA_MOBILE, "?1");
+    } else if ((signals & NOT_MOBILE_HINT_SIGNAL) != 0) {
+      headers.put(ClientHints.SEC_CH_UA_MOBILE, "?0");
+    }
+    switch (signals >>> PLATFORM_HINT_SHIFT) {
+      case ClientHints.PLATFORM_ANDROID:
+        headers.put(ClientHints.SEC_CH_UA_PLATFORM, "\"Android\"");
+        break;
+      case ClientHints.PLATFORM_IOS:
+        headers.put(ClientHints.SEC_CH_UA_PLATFORM, "\"iOS\"");
+        break;
+      case ClientHints.PLATFORM_DESKTOP:
+        headers.put(ClientHints.SEC_CH_UA_PLATFORM, "\"Windows\"");
+        break;
+      default:
+        break;
+    }
+    return headers;
+  }
+
+  private boolean hasOperaMiniHeader(HttpServletRequest request) {
+    if (liteDelegate != null) {
+      return liteDelegate.hasOperaMiniHeader(request, ServletHeaderAccessor.INSTANCE);
+    }
+    Enumeration<String> headers = request.getHeaderNames();
+    while (headers != null && headers.hasMoreElements()) {
+      if (headers.nextElement().contains("OperaMini")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class CacheKey {
+
+    private final String userAgent;
+
+    private final int signals;
+
+    private final int hash;
+
+    CacheKey(String userAgent, int signals) {
+      this.userAgent = userAgent;
+      this.signals = signals;
+      this.hash = userAgent.hashCode() * 31 + signals;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey key = (CacheKey) other;
+      return signals == key.signals && userAgent.equals(key.userAgent);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
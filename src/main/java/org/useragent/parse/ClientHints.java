@@ -0,0 +1,69 @@
+package org.useragent.parse;
+
+/**
+ * The User-Agent Client Hints read by {@link LiteUserAgentResolver}. Chromium browsers send {@code
+ * Sec-CH-UA-Mobile} and {@code Sec-CH-UA-Platform} on secure requests, and they answer whether the
+ * device is mobile and which platform it runs without parsing the User-Agent.
+ */
+public final class ClientHints {
+
+  /** {@code ?1} if the browser runs on a mobile device, {@code ?0} otherwise. */
+  public static final String SEC_CH_UA_MOBILE = "Sec-CH-UA-Mobile";
+
+  /** The platform as a quoted string, such as {@code "Android"} or {@code "Windows"}. */
+  public static final String SEC_CH_UA_PLATFORM = "Sec-CH-UA-Platform";
+
+  /** Value of the {@code Accept-CH} response header that asks browsers for both hints. */
+  public static final String ACCEPT_CH_VALUE = SEC_CH_UA_MOBILE + ", " + SEC_CH_UA_PLATFORM;
+
+  static final int PLATFORM_OTHER = 0;
+  static final int PLATFORM_ANDROID = 1;
+  static final int PLATFORM_IOS = 2;
+  static final int PLATFORM_DESKTOP = 3;
+
+  private static final String[] DESKTOP_PLATFORMS = {
+    "Windows", "macOS", "Linux", "Chrome OS", "Chromium OS"
+  };
+
+  private ClientHints() {}
+
+  /** True if the value of {@code Sec-CH-UA-Mobile} is {@code ?1}. */
+  static boolean isMobile(String mobileHint) {
+    return "?1".equals(mobileHint);
+  }
+
+  /** True if the value of {@code Sec-CH-UA-Mobile} is {@code ?0}. */
+  static boolean isNotMobile(String mobileHint) {
+    return "?0".equals(mobileHint);
+  }
+
+  /**
+   * Classifies the value of {@code Sec-CH-UA-Platform} as one of the {@code PLATFORM_} constants.
+   * The value may be quoted or not and is compared case-insensitively.
+   */
+  static int platformOf(String platformHint) {
+    if (platformHint == null) {
+      return PLATFORM_OTHER;
+    }
+    if (matches(platformHint, "Android")) {
+      return PLATFORM_ANDROID;
+    }
+    if (matches(platformHint, "iOS")) {
+      return PLATFORM_IOS;
+    }
+    for (String platform : DESKTOP_PLATFORMS) {
+      if (matches(platformHint, platform)) {
+        return PLATFORM_DESKTOP;
+      }
+    }
+    return PLATFORM_OTHER;
+  }
+
+  private static boolean matches(String hint, String platform) {
+    int length = platform.length();
+    if (hint.length() == length + 2 && hint.charAt(0) == '"' && hint.charAt(length + 1) == '"') {
+      return hint.regionMatches(true, 1, platform, 0, length);
+    }
+    return hint.equalsIgnoreCase(platform);
+  }
+}
@@ -0,0 +1,201 @@
+package org.useragent.parse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable snapshot of the lookup tables {@link LiteUserAgentResolver} matches against. A resolver
+ * reads its snapshot once per resolution, so replacing the snapshot never exposes a half-built
+ * matcher to requests in flight.
+ *
+ * <p>The snapshot of the built-in rules is compiled at build time by {@link RuleSnapshotCompiler}
+ * into the {@value #DEFAULT_RESOURCE} classpath resource, and the stock resolvers read the tables
+ * from there instead of building and compiling the signature lists on startup. The resource
+ * carries a fingerprint of the signatures it was compiled from and is ignored if they changed.
+ */
+final class CompiledRules {
+
+  static final String DEFAULT_RESOURCE = "default-rules.bin";
+
+  private static final int MAGIC = 0x55414452; // "UADR"
+
+  /**
+   * Version of the snapshot layout. Bump it whenever {@link #writeTo} or the way the resolver reads
+   * the tables changes, such as the hit flags stored in the automaton, so that snapshots written
+   * before are ignored.
+   */
+  static final int FORMAT_VERSION = 2;
+
+  final KeywordAutomaton userAgentKeywords;
+
+  final PrefixTable mobilePrefixes;
+
+  final String[] operaMiniHeaders;
+
+  /** Prefilter for the User-Agent keywords, or {@code null} to scan every char. */
+  final KeywordPrefilter prefilter;
+
+  /** Cached {@link #fingerprint()}, 0 until computed. */
+  private int fingerprint;
+
+  CompiledRules(
+      KeywordAutomaton userAgentKeywords, PrefixTable mobilePrefixes, String[] operaMiniHeaders) {
+    this(userAgentKeywords, mobilePrefixes, operaMiniHeaders, null);
+  }
+
+  private CompiledRules(
+      KeywordAutomaton userAgentKeywords,
+      PrefixTable mobilePrefixes,
+      String[] operaMiniHeaders,
+      KeywordPrefilter prefilter) {
+    this.userAgentKeywords = userAgentKeywords;
+    this.mobilePrefixes = mobilePrefixes;
+    this.operaMiniHeaders = operaMiniHeaders;
+    this.prefilter = prefilter;
+  }
+
+  /**
+   * Returns these rules with the vectorized prefilter on or off. Returns these rules if they are
+   * already in that state, or if the prefilter is not available.
+   */
+  CompiledRules withVectorPrefilter(boolean enabled) {
+    if (enabled == (prefilter != null)) {
+      return this;
+    }
+    KeywordPrefilter vectorized =
+        enabled ? KeywordPrefilter.vectorized(userAgentKeywords.startChars()) : null;
+    if (enabled && vectorized == null) {
+      return this;
+    }
+    return new CompiledRules(userAgentKeywords, mobilePrefixes, operaMiniHeaders, vectorized);
+  }
+
+  /**
+   * Returns the union of the flags of the User-Agent keywords contained in the first {@code length}
+   * chars of the User-Agent.
+   */
+  int scanUserAgent(String userAgent, int length) {
+    if (prefilter == null) {
+      return userAgentKeywords.scanIgnoreCase(userAgent, length);
+    }
+    char[] text = new char[length];
+    userAgent.getChars(0, length, text, 0);
+    return userAgentKeywords.scanIgnoreCase(text, length, prefilter);
+  }
+
+  /**
+   * Reads the build-time snapshot of the built-in rules.
+   *
+   * @return the snapshot, or {@code null} if there is none or it was compiled from other signatures
+   */
+  static CompiledRules loadDefault(int fingerprint) {
+    try (InputStream in = CompiledRules.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+      if (in == null) {
+        return null;
+      }
+      return read(ByteBuffer.wrap(in.readAllBytes()), fingerprint);
+    } catch (IOException | RuntimeException ex) {
+      return null;
+    }
+  }
+
+  /** Reads a snapshot, or returns {@code null} if it has another format or fingerprint. */
+  static CompiledRules read(ByteBuffer in, int fingerprint) {
+    if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION || in.getInt() != fingerprint) {
+      return null;
+    }
+    KeywordAutomaton userAgentKeywords = KeywordAutomaton.readFrom(in);
+    PrefixTable mobilePrefixes = PrefixTable.readFrom(in);
+    String[] operaMiniHeaders = readStrings(in);
+    return new CompiledRules(userAgentKeywords, mobilePrefixes, operaMiniHeaders);
+  }
+
+  void writeTo(OutputStream stream, int fingerprint) throws IOException {
+    DataOutputStream out = new DataOutputStream(stream);
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(fingerprint);
+    userAgentKeywords.writeTo(out);
+    mobilePrefixes.writeTo(out);
+    writeStrings(out, operaMiniHeaders);
+    out.flush();
+  }
+
+  /**
+   * Checksum of the tables, equal for snapshots that match exactly the same inputs. Computed on
+   * first use; like {@link String#hashCode()}, a race only computes the same value twice.
+   */
+  int fingerprint() {
+    int fingerprint = this.fingerprint;
+    if (fingerprint == 0) {
+      fingerprint = computeFingerprint();
+      this.fingerprint = fingerprint;
+    }
+    return fingerprint;
+  }
+
+  private int computeFingerprint() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      writeTo(bytes, 0);
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    return (int) crc.getValue();
+  }
+
+  static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    out.writeInt(values.length);
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  static int[] readInts(ByteBuffer in) {
+    int[] values = new int[in.getInt()];
+    in.asIntBuffer().get(values);
+    in.position(in.position() + values.length * Integer.BYTES);
+    return values;
+  }
+
+  static void writeChars(DataOutputStream out, char[] values) throws IOException {
+    out.writeInt(values.length);
+    for (char value : values) {
+      out.writeChar(value);
+    }
+  }
+
+  static char[] readChars(ByteBuffer in) {
+    char[] values = new char[in.getInt()];
+    in.asCharBuffer().get(values);
+    in.position(in.position() + values.length * Character.BYTES);
+    return values;
+  }
+
+  static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+    out.writeInt(values.length);
+    for (String value : values) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  static String[] readStrings(ByteBuffer in) {
+    String[] values = new String[in.getInt()];
+    for (int i = 0; i < values.length; i++) {
+      byte[] bytes = new byte[in.getInt()];
+      in.get(bytes);
+      values[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return values;
+  }
+}
@@ -23,4 +23,13 @@ public interface Device {
    * @return resolved DevicePlatform
    */
   DevicePlatform getDevicePlatform();
+
+  /**
+   * True if the request comes from a crawler, a monitoring agent or another automated client. Bots
+   * are also normal devices, so callers that do not look at this attribute treat them as before.
+   * Only reported by resolvers with bot detection turned on.
+   */
+  default boolean isBot() {
+    return false;
+  }
 }
@@ -0,0 +1,85 @@
+package org.useragent.parse;
+
+/**
+ * Counts of devices by {@link DeviceType} and {@link DevicePlatform}, as produced by {@link
+ * AccessLogScanner}.
+ */
+public final class DeviceBreakdown {
+
+  private static final DeviceType[] TYPES = DeviceType.values();
+
+  private static final DevicePlatform[] PLATFORMS = DevicePlatform.values();
+
+  private final long[] counts;
+
+  private final long withoutUserAgent;
+
+  DeviceBreakdown(long[] counts, long withoutUserAgent) {
+    this.counts = counts;
+    this.withoutUserAgent = withoutUserAgent;
+  }
+
+  /**
+   * Number of lines whose User-Agent resolved to the given type and platform. Bots are not
+   * included, see {@link #getBotCount()}.
+   */
+  public long getCount(DeviceType deviceType, DevicePlatform devicePlatform) {
+    return counts[DeviceCodes.of(deviceType, devicePlatform)];
+  }
+
+  /** Number of lines whose User-Agent resolved to the given type, on any platform. */
+  public long getCount(DeviceType deviceType) {
+    long count = 0;
+    for (DevicePlatform devicePlatform : PLATFORMS) {
+      count += getCount(deviceType, devicePlatform);
+    }
+    return count;
+  }
+
+  /** Number of lines whose User-Agent resolved to a bot. */
+  public long getBotCount() {
+    return counts[DeviceCodes.BOT];
+  }
+
+  /** Number of lines with a User-Agent field. */
+  public long getTotal() {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    return total;
+  }
+
+  /** Number of lines without a User-Agent field, or with "-" in it. */
+  public long getWithoutUserAgent() {
+    return withoutUserAgent;
+  }
+
+  DeviceBreakdown merge(DeviceBreakdown other) {
+    long[] merged = counts.clone();
+    for (int i = 0; i < merged.length; i++) {
+      merged[i] += other.counts[i];
+    }
+    return new DeviceBreakdown(merged, withoutUserAgent + other.withoutUserAgent);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format("%-8s", ""));
+    for (DevicePlatform devicePlatform : PLATFORMS) {
+      builder.append(String.format("%14s", devicePlatform));
+    }
+    builder.append(String.format("%14s%n", "TOTAL"));
+    for (DeviceType deviceType : TYPES) {
+      builder.append(String.format("%-8s", deviceType));
+      for (DevicePlatform devicePlatform : PLATFORMS) {
+        builder.append(String.format("%14d", getCount(deviceType, devicePlatform)));
+      }
+      builder.append(String.format("%14d%n", getCount(deviceType)));
+    }
+    builder.append(String.format("%-8s%14d%n", "BOT", getBotCount()));
+    builder.append(String.format("%-8s%14d%n", "NO UA", withoutUserAgent));
+    return builder.toString();
+  }
+}
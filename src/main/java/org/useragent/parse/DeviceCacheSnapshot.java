@@ -0,0 +1,61 @@
+package org.useragent.parse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Keeps the cache of a {@link CachingDeviceResolver} warm across restarts: loads a {@link
+ * CachingDeviceResolver#loadSnapshot snapshot} when the bean is initialized, before the
+ * application takes traffic, and {@link CachingDeviceResolver#writeSnapshot writes} the cached
+ * entries back when it is destroyed, after the application stopped taking traffic. A snapshot that
+ * cannot be read or written is logged and otherwise ignored, so the application starts with an
+ * empty cache rather than not at all.
+ */
+public class DeviceCacheSnapshot implements InitializingBean, DisposableBean {
+
+  private static final Log logger = LogFactory.getLog(DeviceCacheSnapshot.class);
+
+  private final CachingDeviceResolver resolver;
+
+  private final Path file;
+
+  private final int maximumEntries;
+
+  /**
+   * @param resolver the resolver whose cache is snapshotted
+   * @param file the snapshot file
+   * @param maximumEntries the maximum number of entries written
+   */
+  public DeviceCacheSnapshot(CachingDeviceResolver resolver, Path file, int maximumEntries) {
+    this.resolver = resolver;
+    this.file = file;
+    this.maximumEntries = maximumEntries;
+  }
+
+  /** Loads the snapshot, if the file exists. */
+  @Override
+  public void afterPropertiesSet() {
+    try {
+      int count = resolver.loadSnapshot(file);
+      logger.debug("Loaded " + count + " cached devices from " + file);
+    } catch (IOException | RuntimeException ex) {
+      logger.warn(
+          "Could not load cached devices from " + file + ", starting with an empty cache", ex);
+    }
+  }
+
+  /** Writes the most frequent cached entries to the snapshot file. */
+  @Override
+  public void destroy() {
+    try {
+      int count = resolver.writeSnapshot(file, maximumEntries);
+      logger.debug("Wrote " + count + " cached devices to " + file);
+    } catch (IOException | RuntimeException ex) {
+      logger.warn("Could not write cached devices to " + file, ex);
+    }
+  }
+}
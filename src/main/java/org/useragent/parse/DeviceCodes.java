@@ -0,0 +1,77 @@
+package org.useragent.parse;
+
+/**
+ * Packs a device into a small code and back. A code combines the {@link DeviceType} and {@link
+ * DevicePlatform} of a device and lies between 0 and {@link #COUNT} - 1, so classifications can be
+ * stored in {@code byte} arrays or used as array indexes instead of keeping {@link Device}
+ * references. Decoding returns the shared device instance for the code, so it never allocates.
+ *
+ * <p>Bots have a code of their own, {@link #BOT}, whose type is {@link DeviceType#NORMAL} and
+ * platform {@link DevicePlatform#UNKNOWN}.
+ */
+public final class DeviceCodes {
+
+  private static final DeviceType[] TYPES = DeviceType.values();
+
+  private static final DevicePlatform[] PLATFORMS = DevicePlatform.values();
+
+  /** The code of {@link Device#isBot() bots}, after the codes of all types and platforms. */
+  public static final byte BOT = (byte) (TYPES.length * PLATFORMS.length);
+
+  /** Number of distinct codes. */
+  public static final int COUNT = BOT + 1;
+
+  private DeviceCodes() {}
+
+  /** Returns the code of the given type and platform. */
+  public static byte of(DeviceType deviceType, DevicePlatform devicePlatform) {
+    return (byte) (deviceType.ordinal() * PLATFORMS.length + devicePlatform.ordinal());
+  }
+
+  /** Returns the code of the given device. */
+  public static byte encode(Device device) {
+    if (device.isBot()) {
+      return BOT;
+    }
+    DeviceType type =
+        device.isTablet()
+            ? DeviceType.TABLET
+            : device.isMobile() ? DeviceType.MOBILE : DeviceType.NORMAL;
+    return of(type, device.getDevicePlatform());
+  }
+
+  /**
+   * Returns the shared device instance of the given code.
+   *
+   * @throws IllegalArgumentException if the code is not a valid device code
+   */
+  public static Device decode(int code) {
+    return code == BOT ? LiteDevice.BOT_INSTANCE : LiteDevice.from(typeOf(code), platformOf(code));
+  }
+
+  /**
+   * Returns the device type of the given code.
+   *
+   * @throws IllegalArgumentException if the code is not a valid device code
+   */
+  public static DeviceType typeOf(int code) {
+    checkCode(code);
+    return code == BOT ? DeviceType.NORMAL : TYPES[code / PLATFORMS.length];
+  }
+
+  /**
+   * Returns the device platform of the given code.
+   *
+   * @throws IllegalArgumentException if the code is not a valid device code
+   */
+  public static DevicePlatform platformOf(int code) {
+    checkCode(code);
+    return code == BOT ? DevicePlatform.UNKNOWN : PLATFORMS[code % PLATFORMS.length];
+  }
+
+  private static void checkCode(int code) {
+    if (code < 0 || code >= COUNT) {
+      throw new IllegalArgumentException("Invalid device code: " + code);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package org.useragent.parse;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.servlet.ConditionalOnMissingFilterBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+/**
+ * Auto-configuration of device resolution for servlet applications. Sets up one shared {@link
+ * LiteDeviceResolver}, so its rules are compiled once per application, optionally wrapped in a
+ * {@link CachingDeviceResolver} whose entries can be kept across restarts in a {@link
+ * DeviceCacheSnapshot}, and registers a {@link DeviceResolverRequestFilter} that stores the device
+ * of every request. Configured with the {@code useragent.resolver} properties, see
+ * {@link DeviceResolverProperties}.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(
+    prefix = "useragent.resolver",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@EnableConfigurationProperties(DeviceResolverProperties.class)
+public class DeviceResolverAutoConfiguration {
+
+  /** Order of the filter: early, but after filters that wrap the request. */
+  public static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+  @Bean
+  @ConditionalOnMissingBean
+  public LiteDeviceResolver liteDeviceResolver(DeviceResolverProperties properties) {
+    LiteDeviceResolver resolver = new LiteDeviceResolver();
+    resolver.setMaxUserAgentLength(properties.getMaxUserAgentLength());
+    resolver.setVectorPrefilter(properties.getEngine() == DeviceResolverProperties.Engine.VECTOR);
+    return resolver;
+  }
+
+  @Bean
+  @Primary
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(prefix = "useragent.resolver", name = "cache-size")
+  public CachingDeviceResolver cachingDeviceResolver(
+      LiteDeviceResolver liteDeviceResolver, DeviceResolverProperties properties) {
+    return new CachingDeviceResolver(liteDeviceResolver, properties.getCacheSize());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnBean(CachingDeviceResolver.class)
+  @ConditionalOnProperty(prefix = "useragent.resolver", name = "cache-snapshot")
+  public DeviceCacheSnapshot deviceCacheSnapshot(
+      CachingDeviceResolver cachingDeviceResolver, DeviceResolverProperties properties) {
+    return new DeviceCacheSnapshot(
+        cachingDeviceResolver, properties.getCacheSnapshot(), Integer.MAX_VALUE);
+  }
+
+  @Bean
+  @ConditionalOnMissingFilterBean(DeviceResolverRequestFilter.class)
+  public FilterRegistrationBean<DeviceResolverRequestFilter> deviceResolverRequestFilter(
+      ObjectProvider<CachingDeviceResolver> cachingDeviceResolver,
+      LiteDeviceResolver liteDeviceResolver,
+      DeviceResolverProperties properties) {
+    DeviceResolver deviceResolver = cachingDeviceResolver.getIfAvailable();
+    if (deviceResolver == null) {
+      deviceResolver = liteDeviceResolver;
+    }
+    FilterRegistrationBean<DeviceResolverRequestFilter> registration =
+        new FilterRegistrationBean<>(
+            new DeviceResolverRequestFilter(deviceResolver, properties.isLazy()));
+    registration.setDispatcherTypes(
+        DispatcherType.REQUEST, DispatcherType.FORWARD, DispatcherType.ERROR, DispatcherType.ASYNC);
+    registration.setOrder(FILTER_ORDER);
+    return registration;
+  }
+}
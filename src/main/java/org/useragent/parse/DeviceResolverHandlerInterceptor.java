@@ -20,23 +20,48 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+/**
+ * Resolves the device of every request the interceptor is mapped to and stores it as a request
+ * attribute, where {@link DeviceUtils} finds it.
+ *
+ * <p>In lazy mode only a cheap deferred handle is stored, and the device is resolved the first time
+ * it is accessed through {@link DeviceUtils} or the {@link Device} methods. Requests whose handlers
+ * never look at the device then skip resolution altogether.
+ *
+ * <p>A device that is already stored, by a {@link DeviceResolverRequestFilter} or by an earlier
+ * dispatch of the same request, is kept rather than resolved again.
+ */
 public class DeviceResolverHandlerInterceptor implements HandlerInterceptor {
 
   private final DeviceResolver deviceResolver;
 
+  private final boolean lazy;
+
   public DeviceResolverHandlerInterceptor() {
     this(new LiteDeviceResolver());
   }
 
   public DeviceResolverHandlerInterceptor(DeviceResolver deviceResolver) {
+    this(deviceResolver, false);
+  }
+
+  /**
+   * @param deviceResolver resolves the device of each request
+   * @param lazy whether to defer resolution until the device is first accessed
+   */
+  public DeviceResolverHandlerInterceptor(DeviceResolver deviceResolver, boolean lazy) {
     this.deviceResolver = deviceResolver;
+    this.lazy = lazy;
   }
 
   @Override
   public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
       throws Exception {
-    Device device = deviceResolver.resolveDevice(request);
-    request.setAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+    if (request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE) == null) {
+      Device device =
+          lazy ? new LazyDevice(deviceResolver, request) : deviceResolver.resolveDevice(request);
+      request.setAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+    }
     return true;
   }
 }
@@ -0,0 +1,94 @@
+package org.useragent.parse;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Configuration of the device resolver set up by {@link DeviceResolverAutoConfiguration}. */
+@ConfigurationProperties("useragent.resolver")
+public class DeviceResolverProperties {
+
+  /** How the User-Agent is searched for keywords. */
+  public enum Engine {
+
+    /** The keyword automaton steps through every char of the User-Agent. */
+    SCALAR,
+
+    /**
+     * The keyword automaton behind the vectorized prefilter, if the {@code jdk.incubator.vector}
+     * module is available; the scalar engine otherwise. Slower than the scalar engine with the
+     * built-in keywords, which start with too many different letters for the prefilter to skip
+     * much (see {@code KeywordScanBenchmark}); only worth trying with a small set of custom
+     * keywords that replace the defaults.
+     */
+    VECTOR
+  }
+
+  /** Whether to set up the resolver and register its servlet filter. */
+  private boolean enabled = true;
+
+  /** How the User-Agent is searched for keywords. */
+  private Engine engine = Engine.SCALAR;
+
+  /** Maximum number of cached devices; no cache if not set. */
+  private Integer cacheSize;
+
+  /**
+   * File the cached devices are loaded from on startup and written to on shutdown; requires a
+   * cache. Not written if not set.
+   */
+  private Path cacheSnapshot;
+
+  /** Number of leading User-Agent chars searched for keywords. */
+  private int maxUserAgentLength = LiteUserAgentResolver.DEFAULT_MAX_USER_AGENT_LENGTH;
+
+  /** Whether to defer resolution until the device of a request is first accessed. */
+  private boolean lazy;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Engine getEngine() {
+    return engine;
+  }
+
+  public void setEngine(Engine engine) {
+    this.engine = engine;
+  }
+
+  public Integer getCacheSize() {
+    return cacheSize;
+  }
+
+  public void setCacheSize(Integer cacheSize) {
+    this.cacheSize = cacheSize;
+  }
+
+  public Path getCacheSnapshot() {
+    return cacheSnapshot;
+  }
+
+  public void setCacheSnapshot(Path cacheSnapshot) {
+    this.cacheSnapshot = cacheSnapshot;
+  }
+
+  public int getMaxUserAgentLength() {
+    return maxUserAgentLength;
+  }
+
+  public void setMaxUserAgentLength(int maxUserAgentLength) {
+    this.maxUserAgentLength = maxUserAgentLength;
+  }
+
+  public boolean isLazy() {
+    return lazy;
+  }
+
+  public void setLazy(boolean lazy) {
+    this.lazy = lazy;
+  }
+}
@@ -0,0 +1,66 @@
+package org.useragent.parse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet filter that resolves the device of a request and stores it as a request attribute, where
+ * {@link DeviceUtils} finds it. Unlike {@link DeviceResolverHandlerInterceptor}, the filter also
+ * sees requests that never reach a handler, such as static resources.
+ *
+ * <p>The device is resolved once per request. Forward, error and async dispatches of the same
+ * request find the stored device and reuse it, and so does a {@link
+ * DeviceResolverHandlerInterceptor} further down the chain. In lazy mode only a deferred handle is
+ * stored, as with the interceptor.
+ */
+public class DeviceResolverRequestFilter extends OncePerRequestFilter {
+
+  private final DeviceResolver deviceResolver;
+
+  private final boolean lazy;
+
+  public DeviceResolverRequestFilter() {
+    this(new LiteDeviceResolver());
+  }
+
+  public DeviceResolverRequestFilter(DeviceResolver deviceResolver) {
+    this(deviceResolver, false);
+  }
+
+  /**
+   * @param deviceResolver resolves the device of each request
+   * @param lazy whether to defer resolution until the device is first accessed
+   */
+  public DeviceResolverRequestFilter(DeviceResolver deviceResolver, boolean lazy) {
+    this.deviceResolver = deviceResolver;
+    this.lazy = lazy;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE) == null) {
+      Device device =
+          lazy ? new LazyDevice(deviceResolver, request) : deviceResolver.resolveDevice(request);
+      request.setAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  /** Also runs on async dispatches, which reuse the device stored by the initial dispatch. */
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  /** Also runs on error dispatches, which reuse the device stored by the initial dispatch. */
+  @Override
+  protected boolean shouldNotFilterErrorDispatch() {
+    return false;
+  }
+}
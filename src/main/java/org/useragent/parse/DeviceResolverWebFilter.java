@@ -0,0 +1,49 @@
+package org.useragent.parse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that resolves the device of every exchange and stores it in the exchange
+ * attributes, where {@link ReactiveDeviceUtils} finds it. Resolution only reads request headers, so
+ * it never blocks and is safe to run on event-loop threads.
+ *
+ * <p>The default resolver does not {@link LiteUserAgentResolver#setOperaMiniHeaderScan scan} the
+ * header names for OperaMini headers: reactive headers are looked up case-insensitively, so probing
+ * the known names finds them, and listing the names would allocate on every request that matches
+ * nothing else.
+ */
+public class DeviceResolverWebFilter implements WebFilter {
+
+  private final UserAgentResolver userAgentResolver;
+
+  public DeviceResolverWebFilter() {
+    this(defaultResolver());
+  }
+
+  public DeviceResolverWebFilter(UserAgentResolver userAgentResolver) {
+    this.userAgentResolver = userAgentResolver;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    ServerHttpRequest request = exchange.getRequest();
+    Device device =
+        userAgentResolver.resolveDevice(
+            request.getHeaders().getFirst(HttpHeaders.USER_AGENT),
+            request,
+            ServerHttpRequestHeaderAccessor.INSTANCE);
+    exchange.getAttributes().put(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+    return chain.filter(exchange);
+  }
+
+  private static LiteUserAgentResolver defaultResolver() {
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+    resolver.setOperaMiniHeaderScan(false);
+    return resolver;
+  }
+}
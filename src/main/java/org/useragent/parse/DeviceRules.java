@@ -0,0 +1,156 @@
+package org.useragent.parse;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+/**
+ * Device signatures loaded from a rule file, to be compiled into a {@link LiteUserAgentResolver}
+ * with {@link LiteUserAgentResolver#setRules(DeviceRules)}. A rule file is a JSON or YAML document
+ * with any of these lists:
+ *
+ * <pre>
+ * {
+ *   "mobileUserAgentPrefixes": ["xiao"],
+ *   "mobileUserAgentKeywords": ["kaios"],
+ *   "tabletUserAgentKeywords": ["lenovo tab"],
+ *   "botUserAgentKeywords": ["examplecrawler"],
+ *   "operaMiniHeaderNames": ["X-OperaMini-Custom"],
+ *   "replaceDefaults": false
+ * }
+ * </pre>
+ *
+ * <p>The lists are added to the signatures the resolver registers in {@link
+ * LiteUserAgentResolver#init()}, unless {@code replaceDefaults} is true, in which case they are
+ * used instead of them. User-Agent prefixes and keywords match regardless of case and are stored
+ * lower-cased. Instances are immutable.
+ */
+public final class DeviceRules {
+
+  /** Rules that add nothing to the built-in signatures. */
+  public static final DeviceRules NONE = new DeviceRules(null, null, null, null, null, false);
+
+  private final List<String> mobileUserAgentPrefixes;
+
+  private final List<String> mobileUserAgentKeywords;
+
+  private final List<String> tabletUserAgentKeywords;
+
+  private final List<String> botUserAgentKeywords;
+
+  private final List<String> operaMiniHeaderNames;
+
+  private final boolean replaceDefaults;
+
+  @JsonCreator
+  public DeviceRules(
+      @JsonProperty("mobileUserAgentPrefixes") List<String> mobileUserAgentPrefixes,
+      @JsonProperty("mobileUserAgentKeywords") List<String> mobileUserAgentKeywords,
+      @JsonProperty("tabletUserAgentKeywords") List<String> tabletUserAgentKeywords,
+      @JsonProperty("botUserAgentKeywords") List<String> botUserAgentKeywords,
+      @JsonProperty("operaMiniHeaderNames") List<String> operaMiniHeaderNames,
+      @JsonProperty("replaceDefaults") boolean replaceDefaults) {
+    this.mobileUserAgentPrefixes = lowerCaseCopyOf(mobileUserAgentPrefixes);
+    this.mobileUserAgentKeywords = lowerCaseCopyOf(mobileUserAgentKeywords);
+    this.tabletUserAgentKeywords = lowerCaseCopyOf(tabletUserAgentKeywords);
+    this.botUserAgentKeywords = lowerCaseCopyOf(botUserAgentKeywords);
+    this.operaMiniHeaderNames = copyOf(operaMiniHeaderNames);
+    this.replaceDefaults = replaceDefaults;
+  }
+
+  /**
+   * Reads rules from a file. Files named {@code *.yml} or {@code *.yaml} are read as YAML, all
+   * others as JSON.
+   *
+   * @throws IOException if the file cannot be read or is not a valid rule file
+   */
+  public static DeviceRules load(Path file) throws IOException {
+    return Parser.load(file);
+  }
+
+  public List<String> getMobileUserAgentPrefixes() {
+    return mobileUserAgentPrefixes;
+  }
+
+  public List<String> getMobileUserAgentKeywords() {
+    return mobileUserAgentKeywords;
+  }
+
+  public List<String> getTabletUserAgentKeywords() {
+    return tabletUserAgentKeywords;
+  }
+
+  public List<String> getBotUserAgentKeywords() {
+    return botUserAgentKeywords;
+  }
+
+  public List<String> getOperaMiniHeaderNames() {
+    return operaMiniHeaderNames;
+  }
+
+  public boolean isReplaceDefaults() {
+    return replaceDefaults;
+  }
+
+  private static List<String> copyOf(List<String> values) {
+    return values != null ? List.copyOf(values) : List.of();
+  }
+
+  /** User-Agents are matched lower-cased, so their prefixes and keywords are stored that way. */
+  private static List<String> lowerCaseCopyOf(List<String> values) {
+    if (values == null) {
+      return List.of();
+    }
+    List<String> lowerCase = new ArrayList<>(values.size());
+    for (String value : values) {
+      lowerCase.add(value.toLowerCase(Locale.ROOT));
+    }
+    return List.copyOf(lowerCase);
+  }
+
+  /** Holds the parsers, so that they are only loaded when a rule file is. */
+  private static final class Parser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static DeviceRules load(Path file) throws IOException {
+      String name = file.getFileName().toString();
+      if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+        try (Reader reader = Files.newBufferedReader(file)) {
+          return fromYaml(reader);
+        }
+      }
+      try (InputStream in = Files.newInputStream(file)) {
+        return MAPPER.readValue(in, DeviceRules.class);
+      }
+    }
+
+    private static DeviceRules fromYaml(Reader reader) throws IOException {
+      Object document;
+      try {
+        document = new Yaml(new SafeConstructor(new LoaderOptions())).load(reader);
+      } catch (RuntimeException ex) {
+        throw new IOException("Invalid YAML rule file", ex);
+      }
+      if (document == null) {
+        return NONE;
+      }
+      try {
+        return MAPPER.convertValue(document, DeviceRules.class);
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Invalid rule file", ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package org.useragent.parse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Loads a rule file into a {@link LiteUserAgentResolver} and reloads it whenever the file changes.
+ * The file is watched from a background daemon thread; each change is read and compiled on that
+ * thread and then swapped into the resolver with {@link LiteUserAgentResolver#setRules}, so
+ * requests keep resolving with the previous rules until the new ones are complete. A file that
+ * cannot be read or parsed is logged and leaves the current rules in place.
+ */
+public class DeviceRulesWatcher implements Closeable {
+
+  private static final Log logger = LogFactory.getLog(DeviceRulesWatcher.class);
+
+  private final Path file;
+
+  private final LiteUserAgentResolver resolver;
+
+  private final WatchService watchService;
+
+  private final Thread thread;
+
+  /**
+   * Loads the rule file into the resolver and starts watching it.
+   *
+   * @throws IOException if the file cannot be loaded or its directory cannot be watched
+   */
+  public DeviceRulesWatcher(Path file, LiteUserAgentResolver resolver) throws IOException {
+    this.file = file.toAbsolutePath();
+    this.resolver = resolver;
+    resolver.setRules(DeviceRules.load(this.file));
+    this.watchService = FileSystems.getDefault().newWatchService();
+    try {
+      this.file
+          .getParent()
+          .register(
+              watchService,
+              StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException | RuntimeException ex) {
+      watchService.close();
+      throw ex;
+    }
+    this.thread = new Thread(this::watch, "device-rules-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Reads the rule file and swaps it into the resolver. Returns false if the file is invalid. */
+  public boolean reload() {
+    try {
+      resolver.setRules(DeviceRules.load(file));
+      logger.debug("Reloaded device rules from " + file);
+      return true;
+    } catch (IOException | RuntimeException ex) {
+      logger.warn("Could not reload device rules from " + file + ", keeping the current rules", ex);
+      return false;
+    }
+  }
+
+  /** Stops watching the file. The resolver keeps the rules it has. */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    thread.interrupt();
+  }
+
+  private void watch() {
+    Path name = file.getFileName();
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (name.equals(event.context())) {
+            changed = true;
+          }
+        }
+        if (changed) {
+          reload();
+        }
+        if (!key.reset()) {
+          return;
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      // closed
+    }
+  }
+}
@@ -20,7 +20,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.context.request.RequestAttributes;
 
 /**
- * Static helper for accessing request-scoped Device values.
+ * Static helper for accessing request-scoped Device values. Devices stored lazily by {@link
+ * DeviceResolverHandlerInterceptor} are resolved on first access and replaced by the result.
  *
  */
 public final class DeviceUtils {
@@ -30,7 +31,12 @@ public final class DeviceUtils {
   private DeviceUtils() {}
 
   public static Device getCurrentDevice(HttpServletRequest request) {
-    return (Device) request.getAttribute(CURRENT_DEVICE_ATTRIBUTE);
+    Device device = (Device) request.getAttribute(CURRENT_DEVICE_ATTRIBUTE);
+    if (device instanceof LazyDevice) {
+      device = ((LazyDevice) device).get();
+      request.setAttribute(CURRENT_DEVICE_ATTRIBUTE, device);
+    }
+    return device;
   }
 
   public static Device getRequiredCurrentDevice(HttpServletRequest request) {
@@ -44,7 +50,12 @@ public final class DeviceUtils {
   }
 
   public static Device getCurrentDevice(RequestAttributes attributes) {
-    return (Device)
-        attributes.getAttribute(CURRENT_DEVICE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    Device device =
+        (Device) attributes.getAttribute(CURRENT_DEVICE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (device instanceof LazyDevice) {
+      device = ((LazyDevice) device).get();
+      attributes.setAttribute(CURRENT_DEVICE_ATTRIBUTE, device, RequestAttributes.SCOPE_REQUEST);
+    }
+    return device;
   }
 }
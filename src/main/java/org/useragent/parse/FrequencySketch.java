@@ -0,0 +1,114 @@
+package org.useragent.parse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch with 4-bit counters that estimates how often a key has been seen recently. Used
+ * by {@link CachingDeviceResolver} to decide whether a new entry is worth more than the one it
+ * would evict (TinyLFU admission).
+ *
+ * <p>The sketch is updated from request threads without a lock. Counters are incremented with a
+ * compare-and-set on the word holding them, so concurrent increments are not lost. All counters
+ * are halved once the number of increments reaches ten times the capacity, so that the sketch
+ * follows changes in the traffic. Only one thread halves the counters at a time; increments made
+ * while it does count towards the next halving, which starts right away if they already reach
+ * that number.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private final AtomicLongArray table;
+
+  private final int tableMask;
+
+  private final int sampleSize;
+
+  private final AtomicInteger additions = new AtomicInteger();
+
+  private final AtomicBoolean resetting = new AtomicBoolean();
+
+  FrequencySketch(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+    this.table = new AtomicLongArray(size);
+    this.tableMask = size - 1;
+    this.sampleSize = 10 * Math.max(capacity, 16);
+  }
+
+  /** Returns the estimated number of occurrences of the key, at most 15. */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table.get(index) >>> (counterOf(hash, i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records an occurrence of the key. */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), counterOf(hash, i));
+    }
+    if (added && additions.incrementAndGet() >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    long word;
+    do {
+      word = table.get(index);
+      if ((word & mask) == mask) {
+        return false;
+      }
+    } while (!table.compareAndSet(index, word, word + (1L << offset)));
+    return true;
+  }
+
+  private void reset() {
+    if (!resetting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      if (additions.get() < sampleSize) {
+        return; // another thread has just halved the counters
+      }
+      for (int i = 0; i < table.length(); i++) {
+        table.getAndUpdate(i, word -> (word >>> 1) & RESET_MASK);
+      }
+      additions.addAndGet(-sampleSize);
+    } finally {
+      resetting.set(false);
+    }
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  /** Picks one of the 16 counters of a table entry, using different hash bits per row. */
+  private static int counterOf(int hash, int i) {
+    return (hash >>> (i << 3)) & 0xf;
+  }
+
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,66 @@
+package org.useragent.parse;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * Reads headers from a request representation of type {@code C}, such as a servlet request, a
+ * reactive request or a message with headers. Accessors are stateless and the request is passed to
+ * every call, so a single accessor instance serves all requests and resolving a device does not
+ * need to wrap each request in an adapter object.
+ *
+ * @param <C> the type of the request, or carrier, the headers are read from
+ */
+@FunctionalInterface
+public interface HeaderAccessor<C> {
+
+  /** Returns the value of the named header, or {@code null}. Names are case-insensitive. */
+  String getHeader(C carrier, String name);
+
+  /**
+   * Returns the names of all headers of the carrier. Only consulted when no other signature
+   * matched. The default implementation returns no names.
+   */
+  default Enumeration<String> getHeaderNames(C carrier) {
+    return Collections.emptyEnumeration();
+  }
+
+  /** Returns an accessor for requests without any headers besides the User-Agent. */
+  @SuppressWarnings("unchecked")
+  static <C> HeaderAccessor<C> none() {
+    return (HeaderAccessor<C>) NoHeaders.INSTANCE;
+  }
+
+  /**
+   * Returns an accessor for headers held in a map of header names to values. The map itself must
+   * look names up case-insensitively, for example a {@code TreeMap} created with {@link
+   * String#CASE_INSENSITIVE_ORDER}.
+   */
+  static HeaderAccessor<Map<String, String>> forMap() {
+    return MapHeaders.INSTANCE;
+  }
+}
+
+final class NoHeaders implements HeaderAccessor<Object> {
+
+  static final NoHeaders INSTANCE = new NoHeaders();
+
+  public String getHeader(Object carrier, String name) {
+    return null;
+  }
+}
+
+final class MapHeaders implements HeaderAccessor<Map<String, String>> {
+
+  static final MapHeaders INSTANCE = new MapHeaders();
+
+  public String getHeader(Map<String, String> carrier, String name) {
+    return carrier.get(name);
+  }
+
+  @Override
+  public Enumeration<String> getHeaderNames(Map<String, String> carrier) {
+    return Collections.enumeration(carrier.keySet());
+  }
+}
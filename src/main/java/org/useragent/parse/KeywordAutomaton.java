@@ -0,0 +1,288 @@
+package org.useragent.parse;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords. Every keyword carries a set of flag bits;
+ * {@link #scan(String)} walks the text once and returns the union of the flags of all keywords
+ * found in it, so its cost depends on the length of the text only and not on the number of
+ * keywords. {@link #scanIgnoreCase(String)} folds the text on the fly instead, so callers never
+ * have to allocate a lower-cased copy of it.
+ *
+ * <p>The automaton is compiled into a dense transition table and is immutable once built, so a
+ * single instance can be shared between threads. The tables can be written to and read back from
+ * a {@link CompiledRules} snapshot without compiling them again.
+ *
+ * <p>From the initial state, only the {@link #startChars() first characters} of the keywords lead
+ * anywhere else. {@link #scanIgnoreCase(char[], int, KeywordPrefilter)} uses that to let a {@link
+ * KeywordPrefilter} skip ahead to the next such character whenever the automaton is back in the
+ * initial state.
+ */
+final class KeywordAutomaton {
+
+  /** Character class of characters that do not occur in any keyword. */
+  private static final int NO_CLASS = 0;
+
+  private final int[] asciiClasses;
+
+  private final int[] foldedAsciiClasses;
+
+  private final char[] extendedChars;
+
+  private final int[] extendedClasses;
+
+  private final int classCount;
+
+  private final int[] transitions;
+
+  private final int[] outputs;
+
+  private final char[] startChars;
+
+  private KeywordAutomaton(
+      int[] asciiClasses,
+      char[] extendedChars,
+      int[] extendedClasses,
+      int classCount,
+      int[] transitions,
+      int[] outputs) {
+    this.asciiClasses = asciiClasses;
+    this.foldedAsciiClasses = new int[128];
+    for (char c = 0; c < 128; c++) {
+      foldedAsciiClasses[c] = asciiClasses[c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+    }
+    this.extendedChars = extendedChars;
+    this.extendedClasses = extendedClasses;
+    this.classCount = classCount;
+    this.transitions = transitions;
+    this.outputs = outputs;
+    this.startChars = computeStartChars();
+  }
+
+  /**
+   * Compiles an automaton for the given keywords. Keywords are matched exactly as given; an empty
+   * keyword matches every text, like {@link String#contains(CharSequence)} does.
+   *
+   * @param keywords the keywords mapped to the flags reported when they are found
+   */
+  static KeywordAutomaton compile(Map<String, Integer> keywords) {
+    TreeSet<Character> chars = new TreeSet<>();
+    for (String keyword : keywords.keySet()) {
+      for (int i = 0; i < keyword.length(); i++) {
+        chars.add(keyword.charAt(i));
+      }
+    }
+
+    int[] asciiClasses = new int[128];
+    int extendedCount = 0;
+    for (char c : chars) {
+      if (c >= 128) {
+        extendedCount++;
+      }
+    }
+    char[] extendedChars = new char[extendedCount];
+    int[] extendedClasses = new int[extendedCount];
+    int classCount = 1;
+    int extended = 0;
+    for (char c : chars) {
+      if (c < 128) {
+        asciiClasses[c] = classCount++;
+      } else {
+        extendedChars[extended] = c;
+        extendedClasses[extended++] = classCount++;
+      }
+    }
+
+    // build the trie; missing edges are -1 until the failure links fill them in
+    int capacity = 1;
+    for (String keyword : keywords.keySet()) {
+      capacity += keyword.length();
+    }
+    int[] transitions = new int[capacity * classCount];
+    Arrays.fill(transitions, -1);
+    int[] outputs = new int[capacity];
+    int stateCount = 1;
+    for (Map.Entry<String, Integer> entry : keywords.entrySet()) {
+      String keyword = entry.getKey();
+      int state = 0;
+      for (int i = 0; i < keyword.length(); i++) {
+        int index =
+            state * classCount
+                + classOf(asciiClasses, extendedChars, extendedClasses, keyword.charAt(i));
+        if (transitions[index] < 0) {
+          transitions[index] = stateCount++;
+        }
+        state = transitions[index];
+      }
+      outputs[state] |= entry.getValue();
+    }
+
+    // turn the trie into a DFA, breadth first so that failure targets are always complete
+    int[] failures = new int[stateCount];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int c = 0; c < classCount; c++) {
+      int next = transitions[c];
+      if (next < 0) {
+        transitions[c] = 0;
+      } else {
+        failures[next] = 0;
+        queue.add(next);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      outputs[state] |= outputs[failures[state]];
+      for (int c = 0; c < classCount; c++) {
+        int index = state * classCount + c;
+        int fallback = transitions[failures[state] * classCount + c];
+        if (transitions[index] < 0) {
+          transitions[index] = fallback;
+        } else {
+          failures[transitions[index]] = fallback;
+          queue.add(transitions[index]);
+        }
+      }
+    }
+
+    return new KeywordAutomaton(
+        asciiClasses,
+        extendedChars,
+        extendedClasses,
+        classCount,
+        Arrays.copyOf(transitions, stateCount * classCount),
+        Arrays.copyOf(outputs, stateCount));
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    CompiledRules.writeInts(out, asciiClasses);
+    CompiledRules.writeChars(out, extendedChars);
+    CompiledRules.writeInts(out, extendedClasses);
+    out.writeInt(classCount);
+    CompiledRules.writeInts(out, transitions);
+    CompiledRules.writeInts(out, outputs);
+  }
+
+  static KeywordAutomaton readFrom(ByteBuffer in) {
+    int[] asciiClasses = CompiledRules.readInts(in);
+    char[] extendedChars = CompiledRules.readChars(in);
+    int[] extendedClasses = CompiledRules.readInts(in);
+    int classCount = in.getInt();
+    int[] transitions = CompiledRules.readInts(in);
+    int[] outputs = CompiledRules.readInts(in);
+    return new KeywordAutomaton(
+        asciiClasses, extendedChars, extendedClasses, classCount, transitions, outputs);
+  }
+
+  /** Returns the union of the flags of every keyword contained in the given text. */
+  int scan(String text) {
+    int[] transitions = this.transitions;
+    int[] outputs = this.outputs;
+    int state = 0;
+    int hits = outputs[0];
+    for (int i = 0, length = text.length(); i < length; i++) {
+      state = transitions[state * classCount + classOf(text.charAt(i))];
+      hits |= outputs[state];
+    }
+    return hits;
+  }
+
+  /**
+   * Returns the union of the flags of every keyword contained in the lower-cased form of the given
+   * text, without creating that lower-cased copy. ASCII letters are folded with a table lookup,
+   * other characters with {@link Character#toLowerCase(char)}. As with a lower-cased copy, keywords
+   * that contain upper-case characters never match.
+   */
+  int scanIgnoreCase(String text) {
+    return scanIgnoreCase(text, text.length());
+  }
+
+  /** Same as {@link #scanIgnoreCase(String)} for the first {@code length} chars of the text. */
+  int scanIgnoreCase(String text, int length) {
+    int[] transitions = this.transitions;
+    int[] outputs = this.outputs;
+    int[] foldedAsciiClasses = this.foldedAsciiClasses;
+    int state = 0;
+    int hits = outputs[0];
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      int charClass = c < 128 ? foldedAsciiClasses[c] : classOf(Character.toLowerCase(c));
+      state = transitions[state * classCount + charClass];
+      hits |= outputs[state];
+    }
+    return hits;
+  }
+
+  /**
+   * Same as {@link #scanIgnoreCase(String)} for the first {@code length} chars of the array, but
+   * the prefilter moves over the runs of text in which no keyword starts while the automaton is in
+   * its initial state.
+   */
+  int scanIgnoreCase(char[] text, int length, KeywordPrefilter prefilter) {
+    int[] transitions = this.transitions;
+    int[] outputs = this.outputs;
+    int[] foldedAsciiClasses = this.foldedAsciiClasses;
+    int state = 0;
+    int hits = outputs[0];
+    int i = 0;
+    while (i < length) {
+      if (state == 0) {
+        i = prefilter.next(text, i, length);
+        if (i == length) {
+          break;
+        }
+      }
+      char c = text[i++];
+      int charClass = c < 128 ? foldedAsciiClasses[c] : classOf(Character.toLowerCase(c));
+      state = transitions[state * classCount + charClass];
+      hits |= outputs[state];
+    }
+    return hits;
+  }
+
+  /**
+   * Returns the ASCII characters, in either case, that leave the initial state, or {@code null} if
+   * chars other than those can matter there: when there is an empty keyword, or a keyword that
+   * starts with a non-ASCII character. Non-ASCII characters in the text always have to be looked
+   * at, since some of them lower-case to ASCII.
+   */
+  char[] startChars() {
+    return startChars == null ? null : startChars.clone();
+  }
+
+  private char[] computeStartChars() {
+    if (outputs[0] != 0) {
+      return null;
+    }
+    for (int extendedClass : extendedClasses) {
+      if (transitions[extendedClass] != 0) {
+        return null;
+      }
+    }
+    StringBuilder chars = new StringBuilder();
+    for (char c = 0; c < 128; c++) {
+      if (transitions[foldedAsciiClasses[c]] != 0) {
+        chars.append(c);
+      }
+    }
+    return chars.toString().toCharArray();
+  }
+
+  private int classOf(char c) {
+    return classOf(asciiClasses, extendedChars, extendedClasses, c);
+  }
+
+  private static int classOf(
+      int[] asciiClasses, char[] extendedChars, int[] extendedClasses, char c) {
+    if (c < 128) {
+      return asciiClasses[c];
+    }
+    int index = Arrays.binarySearch(extendedChars, c);
+    return index < 0 ? NO_CLASS : extendedClasses[index];
+  }
+}
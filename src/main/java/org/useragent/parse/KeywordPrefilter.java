@@ -0,0 +1,37 @@
+package org.useragent.parse;
+
+/**
+ * Skips the parts of a text where no keyword of a {@link KeywordAutomaton} can start, so that the
+ * automaton only steps through the text from the remaining candidate positions. A prefilter is
+ * built for the {@link KeywordAutomaton#startChars() start characters} of one automaton and is
+ * immutable.
+ */
+interface KeywordPrefilter {
+
+  /**
+   * Returns the first index from {@code from} on whose char is one of the start characters or is
+   * not ASCII, or {@code length} if there is none.
+   */
+  int next(char[] text, int from, int length);
+
+  /**
+   * Returns a prefilter that compares whole vectors of chars at once, or {@code null} if the
+   * {@code jdk.incubator.vector} module is not available to the application or the automaton has
+   * no ASCII start characters. The implementation is loaded reflectively, so that this class links
+   * without the module.
+   */
+  static KeywordPrefilter vectorized(char[] startChars) {
+    if (startChars == null
+        || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      return null;
+    }
+    try {
+      return (KeywordPrefilter)
+          Class.forName("org.useragent.parse.VectorKeywordPrefilter")
+              .getDeclaredConstructor(char[].class)
+              .newInstance((Object) startChars);
+    } catch (ReflectiveOperationException | LinkageError ex) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Deferred {@link Device} stored by {@link DeviceResolverHandlerInterceptor} in lazy mode. The
+ * device is resolved when it is first needed, either through {@link DeviceUtils} or through one of
+ * the {@link Device} methods, and the result is kept for the rest of the request. Must not be used
+ * once the request has completed.
+ */
+final class LazyDevice implements Device {
+
+  private final DeviceResolver deviceResolver;
+
+  private final HttpServletRequest request;
+
+  private volatile Device device;
+
+  LazyDevice(DeviceResolver deviceResolver, HttpServletRequest request) {
+    this.deviceResolver = deviceResolver;
+    this.request = request;
+  }
+
+  /** Returns the resolved device, resolving it on the first call. */
+  Device get() {
+    Device device = this.device;
+    if (device == null) {
+      device = deviceResolver.resolveDevice(request);
+      this.device = device;
+    }
+    return device;
+  }
+
+  public boolean isNormal() {
+    return get().isNormal();
+  }
+
+  public boolean isMobile() {
+    return get().isMobile();
+  }
+
+  public boolean isTablet() {
+    return get().isTablet();
+  }
+
+  public DevicePlatform getDevicePlatform() {
+    return get().getDevicePlatform();
+  }
+
+  public boolean isBot() {
+    return get().isBot();
+  }
+
+  @Override
+  public String toString() {
+    Device device = this.device;
+    return device != null ? device.toString() : "[LazyDevice unresolved]";
+  }
+}
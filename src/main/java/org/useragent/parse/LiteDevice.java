@@ -2,25 +2,33 @@ package org.useragent.parse;
 
 final class LiteDevice implements Device {
 
+  /** The shared instances, one per type and platform, indexed by {@link DeviceCodes} code. */
+  private static final LiteDevice[] INSTANCES = createInstances();
+
   public static final LiteDevice NORMAL_INSTANCE =
-      new LiteDevice(DeviceType.NORMAL, DevicePlatform.UNKNOWN);
+      (LiteDevice) from(DeviceType.NORMAL, DevicePlatform.UNKNOWN);
 
   public static final LiteDevice MOBILE_INSTANCE =
-      new LiteDevice(DeviceType.MOBILE, DevicePlatform.UNKNOWN);
+      (LiteDevice) from(DeviceType.MOBILE, DevicePlatform.UNKNOWN);
 
   public static final LiteDevice TABLET_INSTANCE =
-      new LiteDevice(DeviceType.TABLET, DevicePlatform.UNKNOWN);
+      (LiteDevice) from(DeviceType.TABLET, DevicePlatform.UNKNOWN);
+
+  /** A bot: a normal device with an unknown platform that {@link #isBot() is a bot}. */
+  public static final LiteDevice BOT_INSTANCE = INSTANCES[DeviceCodes.BOT];
 
   private final DeviceType deviceType;
   private final DevicePlatform devicePlatform;
+  private final boolean bot;
 
 
   /**
    * Creates a LiteDevice with DevicePlatform.
    */
-  private LiteDevice(DeviceType deviceType, DevicePlatform devicePlatform) {
+  private LiteDevice(DeviceType deviceType, DevicePlatform devicePlatform, boolean bot) {
     this.deviceType = deviceType;
     this.devicePlatform = devicePlatform;
+    this.bot = bot;
   }
 
   public boolean isNormal() {
@@ -39,12 +47,48 @@ final class LiteDevice implements Device {
     return this.devicePlatform;
   }
 
+  public boolean isBot() {
+    return this.bot;
+  }
+
   public DeviceType getDeviceType() {
     return this.deviceType;
   }
 
+  /** Returns the shared instance for the given type and platform; devices are immutable. */
   public static Device from(DeviceType deviceType, DevicePlatform devicePlatform) {
-    return new LiteDevice(deviceType, devicePlatform);
+    return INSTANCES[DeviceCodes.of(deviceType, devicePlatform)];
+  }
+
+  private static LiteDevice[] createInstances() {
+    LiteDevice[] instances = new LiteDevice[DeviceCodes.COUNT];
+    for (DeviceType deviceType : DeviceType.values()) {
+      for (DevicePlatform devicePlatform : DevicePlatform.values()) {
+        instances[DeviceCodes.of(deviceType, devicePlatform)] =
+            new LiteDevice(deviceType, devicePlatform, false);
+      }
+    }
+    instances[DeviceCodes.BOT] = new LiteDevice(DeviceType.NORMAL, DevicePlatform.UNKNOWN, true);
+    return instances;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof LiteDevice)) {
+      return false;
+    }
+    LiteDevice device = (LiteDevice) other;
+    return deviceType == device.deviceType
+        && devicePlatform == device.devicePlatform
+        && bot == device.bot;
+  }
+
+  @Override
+  public int hashCode() {
+    return DeviceCodes.encode(this);
   }
 
   @Override
@@ -52,6 +96,9 @@ final class LiteDevice implements Device {
     StringBuilder builder = new StringBuilder();
     builder.append("[LiteDevice ");
     builder.append("type").append("=").append(this.deviceType);
+    if (this.bot) {
+      builder.append(", bot");
+    }
     builder.append("]");
     return builder.toString();
   }
@@ -0,0 +1,694 @@
+package org.useragent.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link UserAgentResolver} that classifies a device from well-known signatures in its User-Agent
+ * and a few request headers. Does not depend on the Servlet API, so it can be used wherever a
+ * User-Agent and its headers are available; {@link LiteDeviceResolver} adapts it to servlet
+ * requests.
+ */
+public class LiteUserAgentResolver implements UserAgentResolver {
+
+  public static final String ANDROID = "android";
+  public static final String MOBILE = "mobile";
+
+  /** Default number of leading User-Agent chars searched for keywords. */
+  public static final int DEFAULT_MAX_USER_AGENT_LENGTH = 1024;
+  private final List<String> mobileUserAgentPrefixes = new ArrayList<String>();
+
+  private final List<String> mobileUserAgentKeywords = new ArrayList<String>();
+
+  private final List<String> tabletUserAgentKeywords = new ArrayList<String>();
+
+  private final List<String> normalUserAgentKeywords = new ArrayList<String>();
+
+  private final List<String> botUserAgentKeywords = new ArrayList<String>();
+
+  private final List<String> operaMiniHeaderNames =
+      new ArrayList<String>(Arrays.asList(KNOWN_OPERA_MINI_HEADER_NAMES));
+
+  private volatile CompiledRules rules;
+
+  private final ReentrantLock rulesLock = new ReentrantLock();
+
+  /** Whether the signature lists have been registered; guarded by the rules lock. */
+  private boolean initialized;
+
+  private volatile boolean operaMiniHeaderScan = true;
+
+  private volatile boolean clientHints;
+
+  private volatile boolean botDetection;
+
+  /** Guarded by the rules lock. */
+  private boolean vectorPrefilter;
+
+  private volatile int maxUserAgentLength = DEFAULT_MAX_USER_AGENT_LENGTH;
+
+  private final LongAdder truncatedCount = new LongAdder();
+
+  private volatile ResolutionListener resolutionListener;
+
+  private volatile MobileRuleOrdering mobileRuleOrdering;
+
+  /**
+   * Creates a resolver with the built-in signatures and those registered by {@link #init()}. This
+   * class and {@link LiteDeviceResolver} load the built-in signatures from the snapshot compiled at
+   * build time, if there is one, and only register the signature lists when {@link
+   * #setRules(DeviceRules)} needs them. Until then their prefix and keyword lists are empty; to
+   * read the built-in lists, create a resolver with {@link #LiteUserAgentResolver(List)} and call
+   * {@link #init()} on it.
+   */
+  public LiteUserAgentResolver() {
+    CompiledRules snapshot =
+        isStockResolver() ? CompiledRules.loadDefault(defaultRulesFingerprint()) : null;
+    if (snapshot != null) {
+      this.rules = snapshot;
+    } else {
+      init();
+      this.initialized = true;
+      this.rules = compileRules(DeviceRules.NONE);
+    }
+  }
+
+  public LiteUserAgentResolver(List<String> normalUserAgentKeywords) {
+    this.normalUserAgentKeywords.addAll(normalUserAgentKeywords);
+    this.initialized = true;
+    this.rules = compileRules(DeviceRules.NONE);
+  }
+
+  /**
+   * Compiles the given rules together with the signatures registered in {@link #init()} and swaps
+   * them in atomically. Resolutions in progress finish with the previous rules; the ones starting
+   * afterwards use the new rules. Resolution never waits for a compilation.
+   */
+  public void setRules(DeviceRules rules) {
+    rulesLock.lock();
+    try {
+      if (!initialized) {
+        init();
+        initialized = true;
+      }
+      this.rules = compileRules(rules).withVectorPrefilter(vectorPrefilter);
+    } finally {
+      rulesLock.unlock();
+    }
+  }
+
+  final CompiledRules compiledRules() {
+    return rules;
+  }
+
+  /**
+   * Fingerprint of everything that decides how a request resolves: the compiled rules and the
+   * switches for the optional stages. Results obtained under another fingerprint may be stale.
+   */
+  final long resolutionFingerprint() {
+    int switches =
+        (operaMiniHeaderScan ? 1 : 0) | (clientHints ? 1 << 1 : 0) | (botDetection ? 1 << 2 : 0);
+    return 31 * (((long) rules.fingerprint() << 32) | switches) + maxUserAgentLength;
+  }
+
+  public <C> Device resolveDevice(String userAgent, C carrier, HeaderAccessor<C> headers) {
+    Device device = matchDevice(userAgent, carrier, headers);
+    return device != null ? device : LiteDevice.NORMAL_INSTANCE;
+  }
+
+  /**
+   * Matches the User-Agent and headers against the bot, tablet and mobile signatures.
+   *
+   * @return the bot, tablet or mobile device, or {@code null} if none matched or there is no
+   *     User-Agent
+   */
+  protected final <C> Device matchDevice(String userAgent, C carrier, HeaderAccessor<C> headers) {
+    if (userAgent == null) {
+      ruleMatched(ResolutionRule.NONE);
+      return null;
+    }
+
+    CompiledRules rules = this.rules;
+    int hits = 0;
+    boolean scanned = false;
+    if (botDetection) {
+      hits = scan(rules, userAgent);
+      scanned = true;
+      if ((hits & BOT_HIT) != 0) {
+        ruleMatched(ResolutionRule.BOT);
+        return LiteDevice.BOT_INSTANCE;
+      }
+    }
+
+    if (clientHints) {
+      String mobileHint = headers.getHeader(carrier, ClientHints.SEC_CH_UA_MOBILE);
+      if (mobileHint != null) {
+        int platform =
+            ClientHints.platformOf(headers.getHeader(carrier, ClientHints.SEC_CH_UA_PLATFORM));
+        if (ClientHints.isMobile(mobileHint)) {
+          ruleMatched(ResolutionRule.CLIENT_HINT_MOBILE);
+          return resolveWithPlatform(DeviceType.MOBILE, getClientHintPlatform(platform));
+        }
+        if (ClientHints.isNotMobile(mobileHint) && platform == ClientHints.PLATFORM_DESKTOP) {
+          ruleMatched(ResolutionRule.CLIENT_HINT_NORMAL);
+          return null;
+        }
+      }
+    }
+
+    if (!scanned) {
+      hits = scan(rules, userAgent);
+    }
+    ResolutionRule rule = matchTablet(hits);
+    if (rule != null) {
+      ruleMatched(rule);
+      return resolveWithPlatform(DeviceType.TABLET, getTabletPlatform(hits));
+    }
+
+    rule = matchMobile(rules, carrier, headers, userAgent, hits);
+    if (rule != null) {
+      ruleMatched(rule);
+      return resolveWithPlatform(DeviceType.MOBILE, getMobilePlatform(hits));
+    }
+
+    ruleMatched(ResolutionRule.NONE);
+    return null;
+  }
+
+  /**
+   * Turns bot detection on or off. When on, User-Agents containing one of the {@link
+   * #getBotUserAgentKeywords() bot keywords} resolve to a normal device that {@link Device#isBot()
+   * is a bot}, without looking at any header. The bot keywords are part of the
+   * same automaton as the tablet and mobile keywords, so detecting them costs no extra pass over
+   * the User-Agent. Off by default, in which case bots resolve as before.
+   */
+  public void setBotDetection(boolean botDetection) {
+    this.botDetection = botDetection;
+  }
+
+  /**
+   * Sets how many leading chars of the User-Agent are searched for keywords, {@value
+   * #DEFAULT_MAX_USER_AGENT_LENGTH} by default. Keywords in the rest of a longer User-Agent are not
+   * found, which bounds the work an oversized or malicious header can cause; real User-Agents stay
+   * well below the default. {@link #getTruncatedCount()} counts the User-Agents that were cut.
+   */
+  public void setMaxUserAgentLength(int maxUserAgentLength) {
+    if (maxUserAgentLength < PrefixTable.PREFIX_LENGTH) {
+      throw new IllegalArgumentException(
+          "maxUserAgentLength must be at least " + PrefixTable.PREFIX_LENGTH);
+    }
+    this.maxUserAgentLength = maxUserAgentLength;
+  }
+
+  public int getMaxUserAgentLength() {
+    return maxUserAgentLength;
+  }
+
+  /** Number of User-Agents longer than the maximum length whose keyword search was cut short. */
+  public long getTruncatedCount() {
+    return truncatedCount.sum();
+  }
+
+  /**
+   * Turns the vectorized keyword prefilter on or off. With the prefilter on, the User-Agent is
+   * searched with SIMD instructions for the characters keywords start with, and the keyword
+   * automaton only steps through the text from there; the results are the same either way. The
+   * prefilter needs the incubating {@code jdk.incubator.vector} module ({@code --add-modules
+   * jdk.incubator.vector}); without it, resolution silently keeps scanning every char. Off by
+   * default, since it copies the User-Agent into a new char array on every resolution.
+   *
+   * @see #isVectorPrefilterAvailable()
+   */
+  public void setVectorPrefilter(boolean vectorPrefilter) {
+    rulesLock.lock();
+    try {
+      this.vectorPrefilter = vectorPrefilter;
+      this.rules = rules.withVectorPrefilter(vectorPrefilter);
+    } finally {
+      rulesLock.unlock();
+    }
+  }
+
+  /** True if the vectorized keyword prefilter can be used in this JVM. */
+  public static boolean isVectorPrefilterAvailable() {
+    return KeywordPrefilter.vectorized(new char[] {'a'}) != null;
+  }
+
+  /**
+   * Turns the client hints stage on or off. When on, a request with a {@code Sec-CH-UA-Mobile}
+   * hint of {@code ?1} is resolved as a mobile device of the {@code Sec-CH-UA-Platform} platform,
+   * and one with {@code ?0} from a desktop platform as a normal device, without scanning the
+   * User-Agent. Other requests, including Android tablets, which send {@code ?0}, are resolved
+   * from the User-Agent as before. The hints take precedence over the User-Agent, so a request
+   * whose hints disagree with it, such as an iPad User-Agent with {@code ?1}, resolves
+   * differently than with the stage off. Off by default.
+   */
+  public void setClientHints(boolean clientHints) {
+    this.clientHints = clientHints;
+  }
+
+  /**
+   * Sets the listener told which rule decided each resolution, or {@code null} to remove it.
+   * Without a listener the only cost is a null check per resolution.
+   */
+  public void setResolutionListener(ResolutionListener resolutionListener) {
+    this.resolutionListener = resolutionListener;
+  }
+
+  /** The listener told which rule decided each resolution, or {@code null} if there is none. */
+  public ResolutionListener getResolutionListener() {
+    return resolutionListener;
+  }
+
+  /**
+   * Turns adaptive ordering of the mobile checks on or off. When on, the checks that recently
+   * matched the largest share of the requests they ran on run first, which finds a match sooner
+   * when the traffic is dominated by a few kinds of devices. The resolved devices are the same in
+   * either mode: tablets still take precedence over mobiles, and the platform does not depend on
+   * which check matched. The rule reported to the {@link ResolutionListener} is the first matching
+   * check in the current order. Off by default.
+   */
+  public void setAdaptiveRuleOrdering(boolean adaptive) {
+    this.mobileRuleOrdering = adaptive ? new MobileRuleOrdering(DEFAULT_MOBILE_RULE_ORDER) : null;
+  }
+
+  /** The order in which the mobile checks currently run. */
+  public List<ResolutionRule> getMobileRuleOrder() {
+    MobileRuleOrdering ordering = this.mobileRuleOrdering;
+    return List.of(ordering != null ? ordering.order() : DEFAULT_MOBILE_RULE_ORDER);
+  }
+
+  final MobileRuleOrdering mobileRuleOrdering() {
+    return mobileRuleOrdering;
+  }
+
+  private void ruleMatched(ResolutionRule rule) {
+    ResolutionListener listener = this.resolutionListener;
+    if (listener != null) {
+      listener.ruleMatched(rule);
+    }
+  }
+
+  /** Scans at most the maximum length of the User-Agent for keywords. */
+  private int scan(CompiledRules rules, String userAgent) {
+    int length = userAgent.length();
+    int maxLength = maxUserAgentLength;
+    if (length > maxLength) {
+      truncatedCount.increment();
+      length = maxLength;
+    }
+    return rules.scanUserAgent(userAgent, length);
+  }
+
+  private ResolutionRule matchTablet(int hits) {
+    if ((hits & ANDROID_HIT) != 0 && (hits & MOBILE_HIT) == 0) {
+      return ResolutionRule.TABLET_ANDROID;
+    }
+    if ((hits & IPAD_HIT) != 0) {
+      return ResolutionRule.TABLET_IPAD;
+    }
+    if ((hits & SILK_HIT) != 0 && (hits & MOBILE_HIT) == 0) {
+      return ResolutionRule.TABLET_SILK;
+    }
+    return (hits & TABLET_KEYWORD_HIT) != 0 ? ResolutionRule.TABLET_KEYWORD : null;
+  }
+
+  private DevicePlatform getTabletPlatform(int hits) {
+    if ((hits & ANDROID_HIT) != 0) {
+      return DevicePlatform.ANDROID;
+    }
+    if ((hits & IPAD_HIT) != 0) {
+      return DevicePlatform.IOS;
+    }
+    return DevicePlatform.UNKNOWN;
+  }
+
+  private <C> ResolutionRule matchMobile(
+      CompiledRules rules, C carrier, HeaderAccessor<C> headers, String userAgent, int hits) {
+    MobileRuleOrdering ordering = this.mobileRuleOrdering;
+    ResolutionRule[] order = ordering != null ? ordering.order() : DEFAULT_MOBILE_RULE_ORDER;
+    for (ResolutionRule rule : order) {
+      boolean matched = matchesMobileRule(rule, rules, carrier, headers, userAgent, hits);
+      if (ordering != null) {
+        ordering.evaluated(rule, matched);
+      }
+      if (matched) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  private <C> boolean matchesMobileRule(
+      ResolutionRule rule,
+      CompiledRules rules,
+      C carrier,
+      HeaderAccessor<C> headers,
+      String userAgent,
+      int hits) {
+    switch (rule) {
+      case MOBILE_WAP_PROFILE:
+        return headers.getHeader(carrier, "x-wap-profile") != null
+            || headers.getHeader(carrier, "Profile") != null;
+      case MOBILE_PREFIX:
+        return rules.mobilePrefixes.matches(userAgent);
+      case MOBILE_ACCEPT_WAP:
+        String accept = headers.getHeader(carrier, "Accept");
+        return accept != null && accept.contains("wap");
+      case MOBILE_KEYWORD:
+        return (hits & (ANDROID_HIT | IOS_HITS | MOBILE_KEYWORD_HIT)) != 0;
+      case MOBILE_OPERA_MINI:
+        return hasOperaMiniHeader(rules, carrier, headers);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * True if the carrier has one of the OperaMini header names, or, with the header scan on, any
+   * header whose name contains "OperaMini".
+   */
+  final <C> boolean hasOperaMiniHeader(C carrier, HeaderAccessor<C> headers) {
+    return hasOperaMiniHeader(rules, carrier, headers);
+  }
+
+  private <C> boolean hasOperaMiniHeader(
+      CompiledRules rules, C carrier, HeaderAccessor<C> headers) {
+    for (String name : rules.operaMiniHeaders) {
+      if (headers.getHeader(carrier, name) != null) {
+        return true;
+      }
+    }
+    if (operaMiniHeaderScan) {
+      Enumeration<String> headerNames = headers.getHeaderNames(carrier);
+      while (headerNames != null && headerNames.hasMoreElements()) {
+        String header = headerNames.nextElement();
+        if (header.contains("OperaMini")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Turns the OperaMini header scan on or off. The {@link #getOperaMiniHeaderNames() OperaMini
+   * header names} are always looked up first, which finds the headers Opera Mini sends without
+   * looking at the others. With the scan on, the default, every header name of requests that
+   * matched nothing else is then also searched for "OperaMini", as earlier versions did. With it
+   * off, only the known names count, and the cost of the check no longer grows with the number of
+   * headers.
+   */
+  public void setOperaMiniHeaderScan(boolean scan) {
+    this.operaMiniHeaderScan = scan;
+  }
+
+  private static DevicePlatform getClientHintPlatform(int platform) {
+    if (platform == ClientHints.PLATFORM_ANDROID) {
+      return DevicePlatform.ANDROID;
+    }
+    if (platform == ClientHints.PLATFORM_IOS) {
+      return DevicePlatform.IOS;
+    }
+    return DevicePlatform.UNKNOWN;
+  }
+
+  private DevicePlatform getMobilePlatform(int hits) {
+    if ((hits & ANDROID_HIT) != 0) {
+      return DevicePlatform.ANDROID;
+    }
+    if ((hits & IOS_HITS) != 0) {
+      return DevicePlatform.IOS;
+    }
+    return DevicePlatform.UNKNOWN;
+  }
+
+  // subclassing hooks
+
+  /** Wrapper method for allow subclassing platform based resolution */
+  protected Device resolveWithPlatform(DeviceType deviceType, DevicePlatform devicePlatform) {
+    return LiteDevice.from(deviceType, devicePlatform);
+  }
+
+  /**
+   * List of user agent prefixes that identify mobile devices. Used primarily to match by operator
+   * or handset manufacturer. Empty until {@link #init()} has run, see {@link
+   * #LiteUserAgentResolver()}.
+   */
+  protected List<String> getMobileUserAgentPrefixes() {
+    return mobileUserAgentPrefixes;
+  }
+
+  /**
+   * List of user agent keywords that identify mobile devices. Used primarily to match by mobile
+   * platform or operating system. Empty until {@link #init()} has run, see {@link
+   * #LiteUserAgentResolver()}.
+   */
+  protected List<String> getMobileUserAgentKeywords() {
+    return mobileUserAgentKeywords;
+  }
+
+  /**
+   * List of user agent keywords that identify tablet devices. Used primarily to match by tablet
+   * platform or operating system. Empty until {@link #init()} has run, see {@link
+   * #LiteUserAgentResolver()}.
+   */
+  protected List<String> getTabletUserAgentKeywords() {
+    return tabletUserAgentKeywords;
+  }
+
+  /**
+   * List of user agent keywords that identify crawlers, monitoring agents and other automated
+   * clients. Only consulted with {@link #setBotDetection(boolean) bot detection} on. Empty until
+   * {@link #init()} has run, see {@link #LiteUserAgentResolver()}.
+   */
+  protected List<String> getBotUserAgentKeywords() {
+    return botUserAgentKeywords;
+  }
+
+  /**
+   * List of header names that identify requests proxied by Opera Mini. Each name is looked up
+   * directly, case-insensitively. Contains the headers sent by Opera Mini unless subclasses change
+   * it in {@link #init()}.
+   */
+  protected List<String> getOperaMiniHeaderNames() {
+    return operaMiniHeaderNames;
+  }
+
+  /**
+   * Initialize this device resolver implementation. Registers the known set of device signature
+   * strings. Subclasses may override to register additional strings. The prefix and keyword lists
+   * are compiled into lookup tables once this method returns, so changes made to them after
+   * construction are not picked up; use {@link #setRules(DeviceRules)} to change the signatures of
+   * a running resolver.
+   */
+  protected void init() {
+    getMobileUserAgentPrefixes().addAll(Arrays.asList(KNOWN_MOBILE_USER_AGENT_PREFIXES));
+    getMobileUserAgentKeywords().addAll(Arrays.asList(KNOWN_MOBILE_USER_AGENT_KEYWORDS));
+    getTabletUserAgentKeywords().addAll(Arrays.asList(KNOWN_TABLET_USER_AGENT_KEYWORDS));
+    getBotUserAgentKeywords().addAll(Arrays.asList(KNOWN_BOT_USER_AGENT_KEYWORDS));
+  }
+
+  // internal helpers
+
+  /**
+   * Compiles the hard-coded signatures, the registered lists and the given rules into one
+   * snapshot. The keywords go into a single automaton, so that one pass over the user agent finds
+   * every signature the checks above look at.
+   */
+  private CompiledRules compileRules(DeviceRules extra) {
+    boolean defaults = !extra.isReplaceDefaults();
+    List<String> prefixes =
+        merge(defaults, mobileUserAgentPrefixes, extra.getMobileUserAgentPrefixes());
+    List<String> headerNames =
+        merge(defaults, operaMiniHeaderNames, extra.getOperaMiniHeaderNames());
+
+    Map<String, Integer> keywords = new LinkedHashMap<String, Integer>();
+    keywords.put(ANDROID, ANDROID_HIT);
+    keywords.put(MOBILE, MOBILE_HIT);
+    keywords.put("ipad", IPAD_HIT);
+    keywords.put("silk", SILK_HIT);
+    keywords.put("iphone", IPHONE_HIT);
+    keywords.put("ipod", IPOD_HIT);
+    for (String keyword :
+        merge(defaults, tabletUserAgentKeywords, extra.getTabletUserAgentKeywords())) {
+      keywords.merge(keyword, TABLET_KEYWORD_HIT, (a, b) -> a | b);
+    }
+    for (String keyword :
+        merge(defaults, mobileUserAgentKeywords, extra.getMobileUserAgentKeywords())) {
+      keywords.merge(keyword, MOBILE_KEYWORD_HIT, (a, b) -> a | b);
+    }
+    for (String keyword :
+        merge(defaults, botUserAgentKeywords, extra.getBotUserAgentKeywords())) {
+      keywords.merge(keyword, BOT_HIT, (a, b) -> a | b);
+    }
+    return new CompiledRules(
+        KeywordAutomaton.compile(keywords),
+        PrefixTable.compile(prefixes),
+        headerNames.toArray(new String[0]));
+  }
+
+  /** Compiles the built-in signatures, as registered by this class. */
+  static CompiledRules compileDefaultRules() {
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver(Collections.<String>emptyList());
+    resolver.init();
+    return resolver.compileRules(DeviceRules.NONE);
+  }
+
+  /**
+   * Hash of the built-in signatures, the hit flags they compile to and the snapshot format, stored
+   * with their snapshot to detect stale snapshots.
+   */
+  static int defaultRulesFingerprint() {
+    return Arrays.deepHashCode(
+        new Object[] {
+          CompiledRules.FORMAT_VERSION,
+          new String[] {ANDROID, MOBILE, "ipad", "silk", "iphone", "ipod"},
+          new int[] {
+            ANDROID_HIT,
+            MOBILE_HIT,
+            IPAD_HIT,
+            SILK_HIT,
+            IPHONE_HIT,
+            IPOD_HIT,
+            TABLET_KEYWORD_HIT,
+            MOBILE_KEYWORD_HIT,
+            BOT_HIT
+          },
+          KNOWN_MOBILE_USER_AGENT_PREFIXES,
+          KNOWN_MOBILE_USER_AGENT_KEYWORDS,
+          KNOWN_TABLET_USER_AGENT_KEYWORDS,
+          KNOWN_BOT_USER_AGENT_KEYWORDS,
+          KNOWN_OPERA_MINI_HEADER_NAMES
+        });
+  }
+
+  /**
+   * Whether this is one of the stock resolvers, whose signatures are the built-in ones and whose
+   * results only depend on what {@link #resolutionFingerprint()} covers.
+   */
+  final boolean isStockResolver() {
+    return getClass() == LiteUserAgentResolver.class || getClass() == LiteDeviceResolver.class;
+  }
+
+  private static List<String> merge(boolean defaults, List<String> registered, List<String> extra) {
+    List<String> merged = new ArrayList<String>();
+    if (defaults) {
+      merged.addAll(registered);
+    }
+    merged.addAll(extra);
+    return merged;
+  }
+
+  private static final int ANDROID_HIT = 1;
+  private static final int MOBILE_HIT = 1 << 1;
+  private static final int IPAD_HIT = 1 << 2;
+  private static final int SILK_HIT = 1 << 3;
+  private static final int IPHONE_HIT = 1 << 4;
+  private static final int IPOD_HIT = 1 << 5;
+  private static final int TABLET_KEYWORD_HIT = 1 << 6;
+  private static final int MOBILE_KEYWORD_HIT = 1 << 7;
+  private static final int BOT_HIT = 1 << 8;
+  private static final int IOS_HITS = IPHONE_HIT | IPOD_HIT | IPAD_HIT;
+
+  /** The mobile checks in the order they run unless adaptive ordering is on. */
+  private static final ResolutionRule[] DEFAULT_MOBILE_RULE_ORDER = {
+    ResolutionRule.MOBILE_WAP_PROFILE,
+    ResolutionRule.MOBILE_PREFIX,
+    ResolutionRule.MOBILE_ACCEPT_WAP,
+    ResolutionRule.MOBILE_KEYWORD,
+    ResolutionRule.MOBILE_OPERA_MINI
+  };
+
+  private static final String[] KNOWN_OPERA_MINI_HEADER_NAMES =
+      new String[] {"X-OperaMini-Phone-UA", "X-OperaMini-Phone", "X-OperaMini-Features"};
+
+  private static final String[] KNOWN_MOBILE_USER_AGENT_PREFIXES =
+      new String[] {
+        "w3c ", "w3c-", "acs-", "alav", "alca", "amoi", "audi", "avan", "benq",
+        "bird", "blac", "blaz", "brew", "cell", "cldc", "cmd-", "dang", "doco",
+        "eric", "hipt", "htc_", "inno", "ipaq", "ipod", "jigs", "kddi", "keji",
+        "leno", "lg-c", "lg-d", "lg-g", "lge-", "lg/u", "maui", "maxo", "midp",
+        "mits", "mmef", "mobi", "mot-", "moto", "mwbp", "nec-", "newt", "noki",
+        "palm", "pana", "pant", "phil", "play", "port", "prox", "qwap", "sage",
+        "sams", "sany", "sch-", "sec-", "send", "seri", "sgh-", "shar", "sie-",
+        "siem", "smal", "smar", "sony", "sph-", "symb", "t-mo", "teli", "tim-",
+        "tosh", "tsm-", "upg1", "upsi", "vk-v", "voda", "wap-", "wapa", "wapi",
+        "wapp", "wapr", "webc", "winw", "xda ", "xda-"
+      };
+
+  private static final String[] KNOWN_MOBILE_USER_AGENT_KEYWORDS =
+      new String[] {
+        "blackberry",
+        "webos",
+        "ipod",
+        "lge vx",
+        "midp",
+        "maemo",
+        "mmp",
+          MOBILE,
+        "netfront",
+        "hiptop",
+        "nintendo DS",
+        "novarra",
+        "openweb",
+        "opera mobi",
+        "opera mini",
+        "palm",
+        "psp",
+        "phone",
+        "smartphone",
+        "symbian",
+        "up.browser",
+        "up.link",
+        "wap",
+        "windows ce"
+      };
+
+  private static final String[] KNOWN_TABLET_USER_AGENT_KEYWORDS =
+      new String[] {"ipad", "playbook", "hp-tablet", "kindle"};
+
+  private static final String[] KNOWN_BOT_USER_AGENT_KEYWORDS =
+      new String[] {
+        "googlebot",
+        "bingbot",
+        "slurp",
+        "duckduckbot",
+        "baiduspider",
+        "yandexbot",
+        "applebot",
+        "facebookexternalhit",
+        "twitterbot",
+        "linkedinbot",
+        "ahrefsbot",
+        "semrushbot",
+        "mj12bot",
+        "petalbot",
+        "gptbot",
+        "bytespider",
+        "bot/",
+        "crawler",
+        "spider",
+        "curl/",
+        "wget/",
+        "python-requests",
+        "python-urllib",
+        "go-http-client",
+        "apache-httpclient",
+        "java-http-client",
+        "headlesschrome",
+        "kube-probe",
+        "elb-healthchecker",
+        "googlehc",
+        "pingdom",
+        "uptimerobot",
+        "statuscake"
+      };
+}
@@ -0,0 +1,96 @@
+package org.useragent.parse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DeviceResolver} decorator that records Micrometer metrics for every resolution:
+ *
+ * <ul>
+ *   <li>{@value #DURATION_METRIC}, a timer of the resolution latency with percentiles
+ *   <li>{@value #DEVICES_METRIC}, a counter per resulting device {@code type} and {@code platform}
+ *   <li>{@value #RULES_METRIC}, a counter per {@link ResolutionRule} that decided the result, if the
+ *       delegate is a {@link LiteUserAgentResolver}
+ * </ul>
+ *
+ * <p>All meters are registered up front, so recording a resolution does not look up or create
+ * meters. Pass the decorator to {@link DeviceResolverHandlerInterceptor} to measure the device
+ * resolution of every request. Requires {@code micrometer-core} on the classpath; without the
+ * decorator the resolver pays nothing for the instrumentation but a null check.
+ */
+public class MeteredDeviceResolver implements DeviceResolver {
+
+  public static final String DURATION_METRIC = "useragent.resolver.duration";
+
+  public static final String DEVICES_METRIC = "useragent.resolver.devices";
+
+  public static final String RULES_METRIC = "useragent.resolver.rules";
+
+  private final DeviceResolver delegate;
+
+  private final Timer duration;
+
+  private final Counter[] deviceCounters;
+
+  private final Counter[] ruleCounters;
+
+  /**
+   * Creates the decorator and registers its meters. If the delegate is a {@link
+   * LiteUserAgentResolver}, a {@link ResolutionListener} that counts rule hits is added to it; a
+   * listener it already has keeps being told as well.
+   */
+  public MeteredDeviceResolver(DeviceResolver delegate, MeterRegistry registry) {
+    this.delegate = delegate;
+    this.duration =
+        Timer.builder(DURATION_METRIC)
+            .description("Time taken to resolve the device of a request")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(registry);
+
+    this.deviceCounters = new Counter[DeviceCodes.COUNT];
+    for (DeviceType type : DeviceType.values()) {
+      for (DevicePlatform platform : DevicePlatform.values()) {
+        deviceCounters[DeviceCodes.of(type, platform)] =
+            Counter.builder(DEVICES_METRIC)
+                .description("Resolved devices by type and platform")
+                .tag("type", type.name().toLowerCase())
+                .tag("platform", platform.name().toLowerCase())
+                .register(registry);
+      }
+    }
+    deviceCounters[DeviceCodes.BOT] =
+        Counter.builder(DEVICES_METRIC)
+            .description("Resolved devices by type and platform")
+            .tag("type", "bot")
+            .tag("platform", "unknown")
+            .register(registry);
+
+    ResolutionRule[] rules = ResolutionRule.values();
+    this.ruleCounters = new Counter[rules.length];
+    for (ResolutionRule rule : rules) {
+      ruleCounters[rule.ordinal()] =
+          Counter.builder(RULES_METRIC)
+              .description("Resolutions decided by each rule")
+              .tag("rule", rule.name().toLowerCase())
+              .register(registry);
+    }
+    if (delegate instanceof LiteUserAgentResolver) {
+      LiteUserAgentResolver resolver = (LiteUserAgentResolver) delegate;
+      ResolutionListener counter = rule -> ruleCounters[rule.ordinal()].increment();
+      ResolutionListener existing = resolver.getResolutionListener();
+      resolver.setResolutionListener(existing != null ? existing.andThen(counter) : counter);
+    }
+  }
+
+  public Device resolveDevice(HttpServletRequest request) {
+    long start = System.nanoTime();
+    Device device = delegate.resolveDevice(request);
+    duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    deviceCounters[DeviceCodes.encode(device)].increment();
+    return device;
+  }
+}
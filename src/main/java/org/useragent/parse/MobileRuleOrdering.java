@@ -0,0 +1,94 @@
+package org.useragent.parse;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Order in which {@link LiteUserAgentResolver} runs its mobile checks when adaptive rule ordering
+ * is on. Every check that runs is counted, along with whether it matched, and about once every
+ * {@value #REORDER_INTERVAL} matches the checks are sorted by their recent match rate, the share of
+ * their runs that matched, so the ones most likely to match run first. Ties keep the default order.
+ *
+ * <p>Ranking by match rate rather than by match count keeps an order from locking itself in: a
+ * check that runs after another one only gets the requests the earlier one did not match, so it
+ * would collect fewer matches even when it matches more of the traffic. Its rate over the requests
+ * it does see still shows it.
+ *
+ * <p>All mobile checks lead to the same result, so their order only affects how soon a match is
+ * found, never the resolved device. Counts are halved at every reordering, so the order follows
+ * changes in the traffic.
+ */
+final class MobileRuleOrdering {
+
+  static final int REORDER_INTERVAL = 1024;
+
+  private final ResolutionRule[] defaultOrder;
+
+  private final LongAdder[] evaluations = new LongAdder[ResolutionRule.values().length];
+
+  private final LongAdder[] hits = new LongAdder[ResolutionRule.values().length];
+
+  private final ReentrantLock reorderLock = new ReentrantLock();
+
+  /** Decayed evaluation counts by rule ordinal; guarded by the reorder lock. */
+  private final long[] evaluationScores = new long[ResolutionRule.values().length];
+
+  /** Decayed hit counts by rule ordinal; guarded by the reorder lock. */
+  private final long[] hitScores = new long[ResolutionRule.values().length];
+
+  private volatile ResolutionRule[] order;
+
+  MobileRuleOrdering(ResolutionRule[] defaultOrder) {
+    this.defaultOrder = defaultOrder.clone();
+    this.order = defaultOrder.clone();
+    for (ResolutionRule rule : defaultOrder) {
+      evaluations[rule.ordinal()] = new LongAdder();
+      hits[rule.ordinal()] = new LongAdder();
+    }
+  }
+
+  /** The current order; must not be modified. */
+  ResolutionRule[] order() {
+    return order;
+  }
+
+  /** Counts a run of the given check and, if it matched, now and then reorders the checks. */
+  void evaluated(ResolutionRule rule, boolean matched) {
+    evaluations[rule.ordinal()].increment();
+    if (matched) {
+      hits[rule.ordinal()].increment();
+      if (ThreadLocalRandom.current().nextInt(REORDER_INTERVAL) == 0) {
+        reorder();
+      }
+    }
+  }
+
+  /** Sorts the checks by their decayed match rates. Skipped if another thread is reordering. */
+  void reorder() {
+    if (!reorderLock.tryLock()) {
+      return;
+    }
+    try {
+      for (ResolutionRule rule : defaultOrder) {
+        int i = rule.ordinal();
+        evaluationScores[i] = evaluationScores[i] / 2 + evaluations[i].sumThenReset();
+        hitScores[i] = hitScores[i] / 2 + hits[i].sumThenReset();
+      }
+      ResolutionRule[] sorted = defaultOrder.clone();
+      Arrays.sort(sorted, Comparator.comparingDouble((ResolutionRule rule) -> -matchRate(rule)));
+      if (!Arrays.equals(sorted, order)) {
+        order = sorted;
+      }
+    } finally {
+      reorderLock.unlock();
+    }
+  }
+
+  private double matchRate(ResolutionRule rule) {
+    int i = rule.ordinal();
+    return evaluationScores[i] == 0 ? 0 : (double) hitScores[i] / evaluationScores[i];
+  }
+}
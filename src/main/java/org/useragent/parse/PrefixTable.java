@@ -0,0 +1,114 @@
+package org.useragent.parse;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lookup table for four-character User-Agent prefixes. ASCII prefixes are packed into one {@code
+ * int} each (one byte per char) and kept in a sorted array, so a lookup folds and packs the first
+ * four chars of the text and runs a binary search, without allocating a substring.
+ *
+ * <p>Prefixes are compared with the lower-cased start of the text, so prefixes that contain
+ * upper-case characters never match, and prefixes that are not exactly four characters long are
+ * ignored. The rare prefix with non-ASCII characters is compared char by char.
+ */
+final class PrefixTable {
+
+  static final int PREFIX_LENGTH = 4;
+
+  private final int[] packedPrefixes;
+
+  private final String[] extendedPrefixes;
+
+  private PrefixTable(int[] packedPrefixes, String[] extendedPrefixes) {
+    this.packedPrefixes = packedPrefixes;
+    this.extendedPrefixes = extendedPrefixes;
+  }
+
+  static PrefixTable compile(Collection<String> prefixes) {
+    int[] packed = new int[prefixes.size()];
+    int count = 0;
+    List<String> extended = new ArrayList<>();
+    for (String prefix : prefixes) {
+      if (prefix.length() != PREFIX_LENGTH) {
+        continue;
+      }
+      int key = pack(prefix);
+      if (key < 0) {
+        extended.add(prefix);
+      } else {
+        packed[count++] = key;
+      }
+    }
+    packed = Arrays.stream(packed, 0, count).sorted().distinct().toArray();
+    return new PrefixTable(packed, extended.toArray(new String[0]));
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    CompiledRules.writeInts(out, packedPrefixes);
+    CompiledRules.writeStrings(out, extendedPrefixes);
+  }
+
+  static PrefixTable readFrom(ByteBuffer in) {
+    return new PrefixTable(CompiledRules.readInts(in), CompiledRules.readStrings(in));
+  }
+
+  /** True if the lower-cased first four characters of the text are one of the prefixes. */
+  boolean matches(String text) {
+    if (text.length() < PREFIX_LENGTH) {
+      return false;
+    }
+    int key = packFolded(text);
+    if (key >= 0) {
+      return Arrays.binarySearch(packedPrefixes, key) >= 0;
+    }
+    for (String prefix : extendedPrefixes) {
+      if (startsWithFolded(text, prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Packs four ASCII characters into an int, or returns -1 if one of them is not ASCII. */
+  private static int pack(String prefix) {
+    int key = 0;
+    for (int i = 0; i < PREFIX_LENGTH; i++) {
+      char c = prefix.charAt(i);
+      if (c >= 128) {
+        return -1;
+      }
+      key = (key << 8) | c;
+    }
+    return key;
+  }
+
+  private static int packFolded(String text) {
+    int key = 0;
+    for (int i = 0; i < PREFIX_LENGTH; i++) {
+      char c = text.charAt(i);
+      if (c >= 128) {
+        return -1;
+      }
+      if (c >= 'A' && c <= 'Z') {
+        c += 'a' - 'A';
+      }
+      key = (key << 8) | c;
+    }
+    return key;
+  }
+
+  private static boolean startsWithFolded(String text, String prefix) {
+    for (int i = 0; i < PREFIX_LENGTH; i++) {
+      if (Character.toLowerCase(text.charAt(i)) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
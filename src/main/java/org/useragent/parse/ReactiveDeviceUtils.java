@@ -0,0 +1,26 @@
+package org.useragent.parse;
+
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Static helper for accessing exchange-scoped Device values in reactive applications.
+ *
+ */
+public final class ReactiveDeviceUtils {
+
+  private ReactiveDeviceUtils() {}
+
+  public static Device getCurrentDevice(ServerWebExchange exchange) {
+    return exchange.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE);
+  }
+
+  public static Device getRequiredCurrentDevice(ServerWebExchange exchange) {
+    Device device = getCurrentDevice(exchange);
+    if (device == null) {
+      throw new IllegalStateException(
+          "No current device is set in this exchange and one is required - have you configured a"
+              + " DeviceResolverWebFilter?");
+    }
+    return device;
+  }
+}
@@ -0,0 +1,71 @@
+package org.useragent.parse;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped buffer of the keys of cache hits, so that {@link CachingDeviceResolver} does not
+ * update its {@link FrequencySketch} from every request thread. Each thread records into one of
+ * several stripes, picked by its id, and the buffered keys are replayed into the sketch by
+ * whichever thread holds the eviction lock. A key recorded while its stripe is full, or while the
+ * stripe is being drained, may be dropped; the sketch only estimates frequencies anyway.
+ */
+final class ReadBuffer {
+
+  /** Number of keys a stripe holds before it asks to be drained. */
+  static final int STRIPE_SIZE = 16;
+
+  /** Spacing of the stripe counters, so that each one sits on a cache line of its own. */
+  private static final int COUNTER_SPACING = 16;
+
+  private final int stripeMask;
+
+  private final AtomicReferenceArray<Object> keys;
+
+  private final AtomicIntegerArray counts;
+
+  ReadBuffer() {
+    int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+    this.stripeMask = stripes - 1;
+    this.keys = new AtomicReferenceArray<>(stripes * STRIPE_SIZE);
+    this.counts = new AtomicIntegerArray(stripes * COUNTER_SPACING);
+  }
+
+  /**
+   * Records a read of the key. Returns true if the stripe of the calling thread is full, in which
+   * case the caller should {@link #drain} the buffer if it can take the lock without waiting.
+   */
+  boolean record(Object key) {
+    int stripe = stripeOfCurrentThread();
+    int counter = stripe * COUNTER_SPACING;
+    if (counts.get(counter) >= STRIPE_SIZE) {
+      return true;
+    }
+    int index = counts.getAndIncrement(counter);
+    if (index >= STRIPE_SIZE) {
+      return true;
+    }
+    keys.lazySet(stripe * STRIPE_SIZE + index, key);
+    return index == STRIPE_SIZE - 1;
+  }
+
+  /** Passes the buffered keys to the consumer and empties the buffer; needs the eviction lock. */
+  void drain(Consumer<Object> consumer) {
+    for (int stripe = 0; stripe <= stripeMask; stripe++) {
+      int counter = stripe * COUNTER_SPACING;
+      int count = Math.min(counts.get(counter), STRIPE_SIZE);
+      for (int i = 0; i < count; i++) {
+        Object key = keys.getAndSet(stripe * STRIPE_SIZE + i, null);
+        if (key != null) {
+          consumer.accept(key);
+        }
+      }
+      counts.set(counter, 0);
+    }
+  }
+
+  private int stripeOfCurrentThread() {
+    return (Long.hashCode(Thread.currentThread().getId()) * 0x9e3779b9) >>> 16 & stripeMask;
+  }
+}
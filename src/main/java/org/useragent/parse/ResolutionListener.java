@@ -0,0 +1,20 @@
+package org.useragent.parse;
+
+/**
+ * Callback told which {@link ResolutionRule} decided each resolution of a {@link
+ * LiteUserAgentResolver}. Called on the resolving thread, so implementations must be thread-safe
+ * and cheap.
+ */
+@FunctionalInterface
+public interface ResolutionListener {
+
+  void ruleMatched(ResolutionRule rule);
+
+  /** Returns a listener that tells this listener and then the given one. */
+  default ResolutionListener andThen(ResolutionListener next) {
+    return rule -> {
+      ruleMatched(rule);
+      next.ruleMatched(rule);
+    };
+  }
+}
@@ -0,0 +1,47 @@
+package org.useragent.parse;
+
+/**
+ * The check of {@link LiteUserAgentResolver} that decided a resolution, reported to its {@link
+ * ResolutionListener}.
+ */
+public enum ResolutionRule {
+
+  /** One of the bot User-Agent keywords, with bot detection on. */
+  BOT,
+
+  /** A {@code Sec-CH-UA-Mobile} client hint of {@code ?1}. */
+  CLIENT_HINT_MOBILE,
+
+  /** A {@code Sec-CH-UA-Mobile} client hint of {@code ?0} from a desktop platform. */
+  CLIENT_HINT_NORMAL,
+
+  /** "android" without "mobile" in the User-Agent. */
+  TABLET_ANDROID,
+
+  /** "ipad" in the User-Agent. */
+  TABLET_IPAD,
+
+  /** "silk" without "mobile" in the User-Agent. */
+  TABLET_SILK,
+
+  /** One of the tablet User-Agent keywords. */
+  TABLET_KEYWORD,
+
+  /** An {@code x-wap-profile} or {@code Profile} header. */
+  MOBILE_WAP_PROFILE,
+
+  /** One of the mobile User-Agent prefixes. */
+  MOBILE_PREFIX,
+
+  /** An {@code Accept} header containing "wap". */
+  MOBILE_ACCEPT_WAP,
+
+  /** "android", an iOS device or one of the mobile keywords in the User-Agent. */
+  MOBILE_KEYWORD,
+
+  /** One of the OperaMini headers. */
+  MOBILE_OPERA_MINI,
+
+  /** No check matched, or there was no User-Agent. */
+  NONE
+}
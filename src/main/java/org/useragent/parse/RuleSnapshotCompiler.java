@@ -0,0 +1,34 @@
+package org.useragent.parse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build-time step that compiles the built-in rules of {@link LiteUserAgentResolver} into the binary
+ * snapshot the stock resolvers load on startup. Run by the build with the class output directory
+ * as its argument; writes {@code org/useragent/parse/default-rules.bin} below it.
+ */
+public final class RuleSnapshotCompiler {
+
+  private RuleSnapshotCompiler() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: RuleSnapshotCompiler <classes-directory>");
+      System.exit(1);
+    }
+    Path file =
+        Paths.get(args[0])
+            .resolve(CompiledRules.class.getPackageName().replace('.', '/'))
+            .resolve(CompiledRules.DEFAULT_RESOURCE);
+    Files.createDirectories(file.getParent());
+    try (OutputStream out = Files.newOutputStream(file)) {
+      LiteUserAgentResolver.compileDefaultRules()
+          .writeTo(out, LiteUserAgentResolver.defaultRulesFingerprint());
+    }
+    System.out.println("Wrote " + file + " (" + Files.size(file) + " bytes)");
+  }
+}
@@ -0,0 +1,23 @@
+package org.useragent.parse;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/** {@link HeaderAccessor} for reactive {@link ServerHttpRequest}s. */
+public final class ServerHttpRequestHeaderAccessor implements HeaderAccessor<ServerHttpRequest> {
+
+  public static final ServerHttpRequestHeaderAccessor INSTANCE =
+      new ServerHttpRequestHeaderAccessor();
+
+  private ServerHttpRequestHeaderAccessor() {}
+
+  public String getHeader(ServerHttpRequest carrier, String name) {
+    return carrier.getHeaders().getFirst(name);
+  }
+
+  @Override
+  public Enumeration<String> getHeaderNames(ServerHttpRequest carrier) {
+    return Collections.enumeration(carrier.getHeaders().keySet());
+  }
+}
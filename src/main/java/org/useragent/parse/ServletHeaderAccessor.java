@@ -0,0 +1,21 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+
+/** {@link HeaderAccessor} for servlet requests. */
+public final class ServletHeaderAccessor implements HeaderAccessor<HttpServletRequest> {
+
+  public static final ServletHeaderAccessor INSTANCE = new ServletHeaderAccessor();
+
+  private ServletHeaderAccessor() {}
+
+  public String getHeader(HttpServletRequest carrier, String name) {
+    return carrier.getHeader(name);
+  }
+
+  @Override
+  public Enumeration<String> getHeaderNames(HttpServletRequest carrier) {
+    return carrier.getHeaderNames();
+  }
+}
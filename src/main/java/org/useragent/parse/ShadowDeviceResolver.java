@@ -0,0 +1,259 @@
+package org.useragent.parse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link DeviceResolver} that evaluates a candidate resolver against the one in use on live
+ * traffic. Every request is answered by the primary resolver. A sample of the requests is also
+ * resolved by the candidate, on a single background thread, and the devices that differ are kept
+ * as {@link Disagreement disagreements} for inspection.
+ *
+ * <p>The request thread only copies the headers of a sampled request and hands them to the
+ * background thread; the candidate never runs on it. The hand-off queue is bounded, and samples
+ * that do not fit are dropped rather than queued. The latest disagreements are kept in a ring
+ * buffer of fixed size, so older ones are overwritten as new ones arrive. {@link #close()} stops
+ * the background thread.
+ */
+public class ShadowDeviceResolver implements DeviceResolver, Closeable {
+
+  /** Default number of samples waiting for the candidate before further ones are dropped. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  /** Default number of disagreements kept. */
+  public static final int DEFAULT_MAX_DISAGREEMENTS = 256;
+
+  private static final Log logger = LogFactory.getLog(ShadowDeviceResolver.class);
+
+  private final DeviceResolver primary;
+
+  private final UserAgentResolver candidate;
+
+  private final double sampleRate;
+
+  private final ThreadPoolExecutor executor;
+
+  private final AtomicReferenceArray<Disagreement> disagreements;
+
+  private final AtomicLong disagreementCount = new AtomicLong();
+
+  private final LongAdder sampleCount = new LongAdder();
+
+  private final LongAdder droppedCount = new LongAdder();
+
+  private final LongAdder errorCount = new LongAdder();
+
+  private final LongAdder primaryNanos = new LongAdder();
+
+  private final LongAdder candidateNanos = new LongAdder();
+
+  private final LongAdder candidateCount = new LongAdder();
+
+  public ShadowDeviceResolver(
+      DeviceResolver primary, UserAgentResolver candidate, double sampleRate) {
+    this(primary, candidate, sampleRate, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_DISAGREEMENTS);
+  }
+
+  /**
+   * Creates a shadow resolver.
+   *
+   * @param primary the resolver whose devices are returned
+   * @param candidate the resolver evaluated on the sampled requests
+   * @param sampleRate the fraction of requests also resolved by the candidate, between 0 and 1
+   * @param queueCapacity the number of samples that may wait for the candidate
+   * @param maxDisagreements the number of latest disagreements kept
+   */
+  public ShadowDeviceResolver(
+      DeviceResolver primary,
+      UserAgentResolver candidate,
+      double sampleRate,
+      int queueCapacity,
+      int maxDisagreements) {
+    if (!(sampleRate >= 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+    if (maxDisagreements <= 0) {
+      throw new IllegalArgumentException("maxDisagreements must be positive");
+    }
+    this.primary = primary;
+    this.candidate = candidate;
+    this.sampleRate = sampleRate;
+    this.disagreements = new AtomicReferenceArray<>(maxDisagreements);
+    this.executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "device-resolver-shadow");
+              thread.setDaemon(true);
+              return thread;
+            },
+            (runnable, executor) -> droppedCount.increment());
+  }
+
+  public Device resolveDevice(HttpServletRequest request) {
+    if (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return primary.resolveDevice(request);
+    }
+    long start = System.nanoTime();
+    Device device = primary.resolveDevice(request);
+    long elapsed = System.nanoTime() - start;
+    String userAgent = request.getHeader("User-Agent");
+    if (userAgent != null) {
+      sampleCount.increment();
+      Map<String, String> headers = copyHeaders(request);
+      executor.execute(() -> evaluate(userAgent, headers, device, elapsed));
+    }
+    return device;
+  }
+
+  /** Number of requests handed to the candidate, including those dropped. */
+  public long getSampleCount() {
+    return sampleCount.sum();
+  }
+
+  /** Number of samples the candidate has resolved. */
+  public long getEvaluatedCount() {
+    return candidateCount.sum();
+  }
+
+  /** Number of samples dropped because the candidate fell behind. */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /** Number of samples for which the candidate threw an exception. */
+  public long getErrorCount() {
+    return errorCount.sum();
+  }
+
+  /** Number of samples the candidate resolved to a different device, including overwritten ones. */
+  public long getDisagreementCount() {
+    return disagreementCount.get();
+  }
+
+  /** Mean time the primary resolver took on the evaluated samples, in nanoseconds. */
+  public double getPrimaryMeanNanos() {
+    return mean(primaryNanos);
+  }
+
+  /** Mean time the candidate resolver took on the evaluated samples, in nanoseconds. */
+  public double getCandidateMeanNanos() {
+    return mean(candidateNanos);
+  }
+
+  /** Returns the latest disagreements, oldest first. */
+  public List<Disagreement> getDisagreements() {
+    long end = disagreementCount.get();
+    int capacity = disagreements.length();
+    List<Disagreement> latest = new ArrayList<>();
+    for (long i = Math.max(0, end - capacity); i < end; i++) {
+      Disagreement disagreement = disagreements.get((int) (i % capacity));
+      if (disagreement != null) {
+        latest.add(disagreement);
+      }
+    }
+    return latest;
+  }
+
+  /** Stops the background thread. Samples still waiting for the candidate are discarded. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void evaluate(
+      String userAgent, Map<String, String> headers, Device primaryDevice, long primaryElapsed) {
+    Device candidateDevice;
+    long start = System.nanoTime();
+    try {
+      candidateDevice = candidate.resolveDevice(userAgent, headers, HeaderAccessor.forMap());
+    } catch (RuntimeException ex) {
+      errorCount.increment();
+      logger.debug("Candidate resolver failed for User-Agent " + userAgent, ex);
+      return;
+    }
+    candidateNanos.add(System.nanoTime() - start);
+    primaryNanos.add(primaryElapsed);
+    candidateCount.increment();
+    if (DeviceCodes.encode(primaryDevice) != DeviceCodes.encode(candidateDevice)) {
+      Disagreement disagreement = new Disagreement(userAgent, primaryDevice, candidateDevice);
+      long index = disagreementCount.getAndIncrement();
+      disagreements.set((int) (index % disagreements.length()), disagreement);
+    }
+  }
+
+  private double mean(LongAdder nanos) {
+    long count = candidateCount.sum();
+    return count == 0 ? 0 : (double) nanos.sum() / count;
+  }
+
+  private static Map<String, String> copyHeaders(HttpServletRequest request) {
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    Enumeration<String> names = request.getHeaderNames();
+    if (names == null) {
+      return Collections.emptyMap();
+    }
+    while (names.hasMoreElements()) {
+      String name = names.nextElement();
+      headers.putIfAbsent(name, request.getHeader(name));
+    }
+    return headers;
+  }
+
+  /** A sampled request the candidate resolved to a different device than the primary. */
+  public static final class Disagreement {
+
+    private final String userAgent;
+
+    private final Device primary;
+
+    private final Device candidate;
+
+    Disagreement(String userAgent, Device primary, Device candidate) {
+      this.userAgent = userAgent;
+      this.primary = primary;
+      this.candidate = candidate;
+    }
+
+    public String getUserAgent() {
+      return userAgent;
+    }
+
+    /** The device the primary resolver returned. */
+    public Device getPrimary() {
+      return primary;
+    }
+
+    /** The device the candidate resolver returned. */
+    public Device getCandidate() {
+      return candidate;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + userAgent + "] primary=" + primary + ", candidate=" + candidate;
+    }
+  }
+}
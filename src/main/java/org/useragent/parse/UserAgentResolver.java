@@ -0,0 +1,23 @@
+package org.useragent.parse;
+
+/**
+ * Service interface for resolving Devices from a User-Agent and the headers sent along with it,
+ * independent of the Servlet API. Lets services without servlet requests, such as message
+ * consumers or batch jobs, resolve devices without building fake requests.
+ */
+public interface UserAgentResolver {
+
+  /**
+   * Resolve the device that sent the given User-Agent.
+   *
+   * @param userAgent the User-Agent header value, may be {@code null}
+   * @param carrier the request or message the other headers are read from
+   * @param headers reads headers from the carrier
+   */
+  <C> Device resolveDevice(String userAgent, C carrier, HeaderAccessor<C> headers);
+
+  /** Resolve the device that sent the given User-Agent, without looking at any other header. */
+  default Device resolveDevice(String userAgent) {
+    return resolveDevice(userAgent, null, HeaderAccessor.none());
+  }
+}
@@ -0,0 +1,79 @@
+package org.useragent.parse;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link KeywordPrefilter} built on the incubating Vector API. The text is loaded one vector of
+ * chars at a time and compared against every start character, so a chunk without any candidate is
+ * skipped with a handful of vector instructions. Letters are compared case-insensitively by
+ * setting the ASCII case bit of the chunk first, which maps exactly the two cases of a letter to
+ * its lower-case form. Only loaded through {@link KeywordPrefilter#vectorized(char[])}.
+ */
+final class VectorKeywordPrefilter implements KeywordPrefilter {
+
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  private static final short CASE_BIT = 0x20;
+
+  /** Lower-case letters that start a keyword, compared with the case bit set. */
+  private final short[] letters;
+
+  /** Other ASCII characters that start a keyword, compared as they are. */
+  private final short[] others;
+
+  private final boolean[] asciiStarts = new boolean[128];
+
+  VectorKeywordPrefilter(char[] startChars) {
+    StringBuilder letters = new StringBuilder();
+    StringBuilder others = new StringBuilder();
+    for (char c : startChars) {
+      asciiStarts[c] = true;
+      char lower = Character.toLowerCase(c);
+      if (lower >= 'a' && lower <= 'z') {
+        if (letters.indexOf(String.valueOf(lower)) < 0) {
+          letters.append(lower);
+        }
+      } else {
+        others.append(c);
+      }
+    }
+    this.letters = toShorts(letters);
+    this.others = toShorts(others);
+  }
+
+  public int next(char[] text, int from, int length) {
+    int i = from;
+    for (int step = SPECIES.length(); i + step <= length; i += step) {
+      ShortVector chunk = ShortVector.fromCharArray(SPECIES, text, i);
+      VectorMask<Short> candidates = chunk.compare(VectorOperators.UNSIGNED_GE, (short) 128);
+      ShortVector folded = chunk.or(CASE_BIT);
+      for (short letter : letters) {
+        candidates = candidates.or(folded.eq(letter));
+      }
+      for (short other : others) {
+        candidates = candidates.or(chunk.eq(other));
+      }
+      if (candidates.anyTrue()) {
+        return i + candidates.firstTrue();
+      }
+    }
+    for (; i < length; i++) {
+      char c = text[i];
+      if (c >= 128 || asciiStarts[c]) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  private static short[] toShorts(CharSequence chars) {
+    short[] shorts = new short[chars.length()];
+    for (int i = 0; i < shorts.length; i++) {
+      shorts[i] = (short) chars.charAt(i);
+    }
+    return shorts;
+  }
+}
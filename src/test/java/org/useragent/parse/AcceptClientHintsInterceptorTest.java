@@ -0,0 +1,32 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AcceptClientHintsInterceptorTest {
+
+  private final AcceptClientHintsInterceptor interceptor = new AcceptClientHintsInterceptor();
+
+  @Test
+  void testPreHandle_AddsAcceptCh() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertTrue(interceptor.preHandle(new MockHttpServletRequest(), response, null));
+
+    assertEquals("Sec-CH-UA-Mobile, Sec-CH-UA-Platform", response.getHeader("Accept-CH"));
+  }
+
+  @Test
+  void testPreHandle_KeepsExistingAcceptCh() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setHeader("Accept-CH", "Sec-CH-UA-Model");
+
+    interceptor.preHandle(new MockHttpServletRequest(), response, null);
+
+    assertEquals("Sec-CH-UA-Model", response.getHeader("Accept-CH"));
+  }
+}
@@ -0,0 +1,116 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccessLogScannerTest {
+
+  private static final String PREFIX =
+      "203.0.113.7 - - [10/Oct/2023:13:55:36 -0700] \"GET /index.html HTTP/1.1\" 200 2326"
+          + " \"https://example.com/\" ";
+
+  private static final String IPHONE =
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like"
+          + " Gecko) Version/17.1 Mobile/15E148 Safari/604.1";
+
+  private static final String ANDROID_TABLET =
+      "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/120.0.0.0 Safari/537.36";
+
+  private static final String DESKTOP =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/120.0.0.0 Safari/537.36";
+
+  @TempDir Path directory;
+
+  @Test
+  void testScan_CombinedFormat() throws IOException {
+    Path log =
+        write(
+            line(IPHONE),
+            line(ANDROID_TABLET),
+            line(DESKTOP),
+            line(IPHONE),
+            line("-"),
+            "203.0.113.7 - - [10/Oct/2023:13:55:36 -0700] \"GET / HTTP/1.1\" 200 2326",
+            "",
+            line("Mozilla/5.0 (compatible; \\\"quoted\\\" iPad client)") + "\r");
+
+    DeviceBreakdown breakdown = new AccessLogScanner().scan(log);
+
+    assertEquals(2, breakdown.getCount(DeviceType.MOBILE, DevicePlatform.IOS));
+    assertEquals(1, breakdown.getCount(DeviceType.TABLET, DevicePlatform.ANDROID));
+    assertEquals(1, breakdown.getCount(DeviceType.TABLET, DevicePlatform.IOS));
+    assertEquals(1, breakdown.getCount(DeviceType.NORMAL, DevicePlatform.UNKNOWN));
+    assertEquals(5, breakdown.getTotal());
+    assertEquals(2, breakdown.getWithoutUserAgent());
+  }
+
+  @Test
+  void testScan_QuoteAfterEscapedBackslashIsNotEscaped() throws IOException {
+    // the User-Agent follows a field ending in an escaped backslash
+    Path log =
+        write(
+            "203.0.113.7 - - [10/Oct/2023:13:55:36 -0700] \"GET / HTTP/1.1\" 200 2326 iPhone\\\\\""
+                + DESKTOP
+                + "\"",
+            line("Mozilla/5.0 (Windows NT 10.0) \\\\\\\" iPad\\\\"));
+
+    DeviceBreakdown breakdown = new AccessLogScanner().scan(log);
+
+    assertEquals(1, breakdown.getCount(DeviceType.NORMAL, DevicePlatform.UNKNOWN));
+    assertEquals(1, breakdown.getCount(DeviceType.TABLET, DevicePlatform.IOS));
+  }
+
+  @Test
+  void testScan_ChunksAreMerged() throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      lines.add(line(i % 2 == 0 ? IPHONE : DESKTOP + " build/" + i));
+    }
+    Path log = write(lines.toArray(new String[0]));
+
+    DeviceBreakdown breakdown =
+        new AccessLogScanner(new LiteUserAgentResolver(), 1024).scan(log);
+
+    assertEquals(500, breakdown.getCount(DeviceType.MOBILE));
+    assertEquals(500, breakdown.getCount(DeviceType.NORMAL));
+    assertEquals(0, breakdown.getWithoutUserAgent());
+  }
+
+  @Test
+  void testScan_EmptyFile() throws IOException {
+    DeviceBreakdown breakdown = new AccessLogScanner().scan(write());
+
+    assertEquals(0, breakdown.getTotal());
+  }
+
+  @Test
+  void testScan_MissingFile() {
+    assertThrows(
+        IOException.class, () -> new AccessLogScanner().scan(directory.resolve("missing.log")));
+  }
+
+  private static String line(String userAgent) {
+    return PREFIX + "\"" + userAgent + "\"";
+  }
+
+  private Path write(String... lines) throws IOException {
+    Path log = Files.createTempFile(directory, "access", ".log");
+    StringBuilder content = new StringBuilder();
+    for (String line : lines) {
+      content.append(line).append('\n');
+    }
+    Files.write(log, content.toString().getBytes(StandardCharsets.UTF_8));
+    return log;
+  }
+}
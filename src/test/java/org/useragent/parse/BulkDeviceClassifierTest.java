@@ -0,0 +1,115 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class BulkDeviceClassifierTest {
+
+  private static final String IPHONE =
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like"
+          + " Gecko) Version/14.0 Mobile/15E148 Safari/604.1";
+
+  private static final String ANDROID_TABLET =
+      "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/120.0.0.0 Safari/537.36";
+
+  private static final String DESKTOP =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/120.0.0.0 Safari/537.36";
+
+  private final BulkDeviceClassifier classifier = new BulkDeviceClassifier();
+
+  @Test
+  void testClassify_Array() {
+    byte[] codes = classifier.classify(new String[] {IPHONE, ANDROID_TABLET, DESKTOP, null});
+
+    assertEquals(DeviceType.MOBILE, BulkDeviceClassifier.typeOf(codes[0]));
+    assertEquals(DevicePlatform.IOS, BulkDeviceClassifier.platformOf(codes[0]));
+    assertEquals(DeviceType.TABLET, BulkDeviceClassifier.typeOf(codes[1]));
+    assertEquals(DevicePlatform.ANDROID, BulkDeviceClassifier.platformOf(codes[1]));
+    assertEquals(DeviceType.NORMAL, BulkDeviceClassifier.typeOf(codes[2]));
+    assertEquals(DevicePlatform.UNKNOWN, BulkDeviceClassifier.platformOf(codes[2]));
+    assertEquals(DeviceType.NORMAL, BulkDeviceClassifier.typeOf(codes[3]));
+  }
+
+  @Test
+  void testClassify_ResolvesDistinctUserAgentsOnce() {
+    LiteUserAgentResolver resolver = spy(new LiteUserAgentResolver());
+    String[] userAgents = new String[3000];
+    for (int i = 0; i < userAgents.length; i++) {
+      userAgents[i] = i % 3 == 0 ? IPHONE : i % 3 == 1 ? ANDROID_TABLET : DESKTOP;
+    }
+
+    byte[] codes = new BulkDeviceClassifier(resolver).classify(userAgents);
+
+    verify(resolver, times(3)).resolveDevice(anyString());
+    for (int i = 3; i < codes.length; i++) {
+      assertEquals(codes[i - 3], codes[i]);
+    }
+  }
+
+  @Test
+  void testClassify_IterableAndStreamKeepOrder() {
+    List<String> userAgents = Arrays.asList(DESKTOP, IPHONE, ANDROID_TABLET, IPHONE);
+    byte[] expected = classifier.classify(userAgents.toArray(new String[0]));
+
+    assertArrayEquals(expected, classifier.classify(userAgents));
+    assertArrayEquals(
+        expected, classifier.classify(Stream.of(DESKTOP, IPHONE, ANDROID_TABLET, IPHONE)));
+  }
+
+  @Test
+  void testClassify_ReadsStreamsInBatches() {
+    int total = 3 * BulkDeviceClassifier.BATCH_SIZE + 5;
+    AtomicInteger read = new AtomicInteger();
+    AtomicInteger readAtFirstResolution = new AtomicInteger(-1);
+    LiteUserAgentResolver resolver =
+        new LiteUserAgentResolver() {
+          @Override
+          public <C> Device resolveDevice(String userAgent, C carrier, HeaderAccessor<C> headers) {
+            readAtFirstResolution.compareAndSet(-1, read.get());
+            return super.resolveDevice(userAgent, carrier, headers);
+          }
+        };
+    Stream<String> userAgents =
+        IntStream.range(0, total)
+            .peek(i -> read.incrementAndGet())
+            .mapToObj(i -> i % 2 == 0 ? IPHONE : DESKTOP);
+
+    byte[] codes = new BulkDeviceClassifier(resolver).classify(userAgents);
+
+    assertEquals(total, codes.length);
+    assertEquals(BulkDeviceClassifier.BATCH_SIZE, readAtFirstResolution.get());
+    assertEquals(DeviceType.MOBILE, BulkDeviceClassifier.typeOf(codes[total - 1]));
+    assertEquals(DeviceType.NORMAL, BulkDeviceClassifier.typeOf(codes[total - 2]));
+  }
+
+  @Test
+  void testClassify_StreamToOutputStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count = classifier.classify(Stream.of(DESKTOP, IPHONE, ANDROID_TABLET), out);
+
+    assertEquals(3, count);
+    assertArrayEquals(
+        classifier.classify(new String[] {DESKTOP, IPHONE, ANDROID_TABLET}), out.toByteArray());
+  }
+
+  @Test
+  void testClassify_Empty() {
+    assertEquals(0, classifier.classify(new String[0]).length);
+  }
+}
@@ -0,0 +1,325 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class CachingDeviceResolverTest {
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/89.0.4389.82 Safari/537.36";
+
+  private final DeviceResolver delegate = Mockito.mock(DeviceResolver.class);
+
+  @Test
+  void testResolveDevice_CachesByUserAgent() {
+    Device device = LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS);
+    when(delegate.resolveDevice(any())).thenReturn(device);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+
+    assertSame(device, resolver.resolveDevice(request(DESKTOP_USER_AGENT)));
+    assertSame(device, resolver.resolveDevice(request(DESKTOP_USER_AGENT)));
+    assertSame(device, resolver.resolveDevice(request(DESKTOP_USER_AGENT)));
+
+    verify(delegate, times(1)).resolveDevice(any());
+    assertEquals(2, resolver.getHitCount());
+    assertEquals(1, resolver.getMissCount());
+    assertEquals(1, resolver.size());
+  }
+
+  @Test
+  void testResolveDevice_HeaderSignalsArePartOfTheKey() {
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LiteDeviceResolver());
+
+    assertTrue(resolver.resolveDevice(request(DESKTOP_USER_AGENT)).isNormal());
+
+    MockHttpServletRequest wapProfile = request(DESKTOP_USER_AGENT);
+    wapProfile.addHeader("x-wap-profile", "http://example.com/profile.xml");
+    assertTrue(resolver.resolveDevice(wapProfile).isMobile());
+
+    MockHttpServletRequest accept = request(DESKTOP_USER_AGENT);
+    accept.addHeader("Accept", "text/vnd.wap.wml");
+    assertTrue(resolver.resolveDevice(accept).isMobile());
+
+    MockHttpServletRequest operaMini = request(DESKTOP_USER_AGENT);
+    operaMini.addHeader("X-OperaMini-Phone-UA", "Nokia");
+    assertTrue(resolver.resolveDevice(operaMini).isMobile());
+
+    assertTrue(resolver.resolveDevice(request(DESKTOP_USER_AGENT)).isNormal());
+    assertEquals(4, resolver.getMissCount());
+    assertEquals(1, resolver.getHitCount());
+  }
+
+  @Test
+  void testResolveDevice_WithoutUserAgentIsNotCached() {
+    when(delegate.resolveDevice(any())).thenReturn(LiteDevice.NORMAL_INSTANCE);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+
+    resolver.resolveDevice(new MockHttpServletRequest());
+    resolver.resolveDevice(new MockHttpServletRequest());
+
+    verify(delegate, times(2)).resolveDevice(any());
+    assertEquals(0, resolver.size());
+  }
+
+  @Test
+  void testResolveDevice_SizeIsBounded() {
+    when(delegate.resolveDevice(any())).thenReturn(LiteDevice.NORMAL_INSTANCE);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate, 16);
+
+    for (int i = 0; i < 1000; i++) {
+      resolver.resolveDevice(request("agent-" + i));
+    }
+
+    assertEquals(16, resolver.size());
+    assertEquals(1000, resolver.getMissCount());
+  }
+
+  @Test
+  void testResolveDevice_FrequentUserAgentsAreKept() {
+    when(delegate.resolveDevice(any())).thenReturn(LiteDevice.NORMAL_INSTANCE);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate, 32);
+
+    long frequentHits = 0;
+    for (int round = 0; round < 50; round++) {
+      long hits = resolver.getHitCount();
+      for (int i = 0; i < 16; i++) {
+        resolver.resolveDevice(request("frequent-" + i));
+      }
+      if (round >= 10) {
+        frequentHits += resolver.getHitCount() - hits;
+      }
+      for (int i = 0; i < 20; i++) {
+        resolver.resolveDevice(request("one-off-" + round + "-" + i));
+      }
+    }
+
+    assertTrue(frequentHits >= 0.95 * 16 * 40, "frequent hits: " + frequentHits);
+  }
+
+  @Test
+  void testResolveDevice_NewFrequentUserAgentsEvictOldOnes() {
+    when(delegate.resolveDevice(any())).thenReturn(LiteDevice.NORMAL_INSTANCE);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate, 16);
+
+    for (int i = 0; i < 16; i++) {
+      resolver.resolveDevice(request("old-" + i));
+    }
+    for (int round = 0; round < 10; round++) {
+      resolver.resolveDevice(request("new"));
+    }
+
+    assertTrue(resolver.getEvictionCount() > 0);
+    assertEquals(16, resolver.size());
+  }
+
+  @Test
+  void testConstructor_RejectsNonPositiveSize() {
+    assertThrows(IllegalArgumentException.class, () -> new CachingDeviceResolver(delegate, 0));
+  }
+
+  private static MockHttpServletRequest request(String userAgent) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("User-Agent", userAgent);
+    return request;
+  }
+
+  @Test
+  void testResolveDevice_ClientHintsArePartOfTheKey() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver();
+    delegate.setClientHints(true);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+    String chrome = "Mozilla/5.0 (Linux; Android 10; K) Chrome/120.0.0.0 Mobile Safari/537.36";
+
+    MockHttpServletRequest phone = request(chrome);
+    phone.addHeader("Sec-CH-UA-Mobile", "?1");
+    phone.addHeader("Sec-CH-UA-Platform", "\"Android\"");
+    assertTrue(resolver.resolveDevice(phone).isMobile());
+
+    MockHttpServletRequest desktop = request(chrome);
+    desktop.addHeader("Sec-CH-UA-Mobile", "?0");
+    desktop.addHeader("Sec-CH-UA-Platform", "\"Linux\"");
+    assertTrue(resolver.resolveDevice(desktop).isNormal());
+
+    assertEquals(2, resolver.getMissCount());
+  }
+
+  @Test
+  void testResolveDevice_EmptiedWhenRulesChange() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver();
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+    String lenovo = "Mozilla/5.0 (X11; Lenovo Tab P11) AppleWebKit/537.36";
+
+    assertTrue(resolver.resolveDevice(request(lenovo)).isNormal());
+    assertTrue(resolver.resolveDevice(request(lenovo)).isNormal());
+    assertEquals(1, resolver.size());
+
+    delegate.setRules(new DeviceRules(null, null, List.of("lenovo tab"), null, null, false));
+
+    assertTrue(resolver.resolveDevice(request(lenovo)).isTablet());
+    assertEquals(1, resolver.size());
+    assertEquals(2, resolver.getMissCount());
+  }
+
+  @Test
+  void testResolveDevice_EmptiedWhenSwitchesChange() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver();
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+    String googlebot = "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)";
+
+    assertFalse(resolver.resolveDevice(request(googlebot)).isBot());
+    assertFalse(resolver.resolveDevice(request(googlebot)).isBot());
+
+    delegate.setBotDetection(true);
+
+    assertTrue(resolver.resolveDevice(request(googlebot)).isBot());
+    assertEquals(1, resolver.size());
+    assertEquals(2, resolver.getMissCount());
+  }
+
+  @Test
+  void testSnapshot_LoadsMostFrequentEntries(@TempDir Path dir) throws IOException {
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LiteDeviceResolver());
+    String iphone = "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) Mobile/15E148";
+    for (int i = 0; i < 3; i++) {
+      resolver.resolveDevice(request(iphone));
+    }
+    resolver.resolveDevice(request(DESKTOP_USER_AGENT));
+    MockHttpServletRequest wapProfile = request("Mozilla/5.0 (X11; Linux) Gecko");
+    wapProfile.addHeader("x-wap-profile", "http://example.com/profile.xml");
+    resolver.resolveDevice(wapProfile);
+    resolver.resolveDevice(wapProfile);
+    Path file = dir.resolve("devices.bin");
+
+    assertEquals(2, resolver.writeSnapshot(file, 2));
+
+    LiteDeviceResolver delegate = Mockito.spy(new LiteDeviceResolver());
+    CachingDeviceResolver warm = new CachingDeviceResolver(delegate);
+    assertEquals(2, warm.loadSnapshot(file));
+    assertEquals(2, warm.size());
+    assertSame(
+        LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS),
+        warm.resolveDevice(request(iphone)));
+    assertTrue(warm.resolveDevice(wapProfile).isMobile());
+    assertEquals(2, warm.getHitCount());
+    verify(delegate, times(0)).resolveDevice(any(HttpServletRequest.class));
+  }
+
+  @Test
+  void testSnapshot_ResolvedAgainWhenRulesChanged(@TempDir Path dir) throws IOException {
+    String lenovo = "Mozilla/5.0 (X11; Lenovo Tab P11) AppleWebKit/537.36";
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LiteDeviceResolver());
+    resolver.resolveDevice(request(lenovo));
+    MockHttpServletRequest wapProfile = request("Mozilla/5.0 (X11; Linux) Gecko");
+    wapProfile.addHeader("x-wap-profile", "http://example.com/profile.xml");
+    resolver.resolveDevice(wapProfile);
+    Path file = dir.resolve("devices.bin");
+    resolver.writeSnapshot(file, 10);
+
+    LiteDeviceResolver delegate = Mockito.spy(new LiteDeviceResolver());
+    delegate.setRules(new DeviceRules(null, null, List.of("lenovo tab"), null, null, false));
+    CachingDeviceResolver warm = new CachingDeviceResolver(delegate);
+
+    assertEquals(2, warm.loadSnapshot(file));
+    verify(delegate, times(2)).resolveDevice(anyString(), any(), any(HeaderAccessor.class));
+    assertTrue(warm.resolveDevice(request(lenovo)).isTablet());
+    assertTrue(warm.resolveDevice(wapProfile).isMobile());
+    assertEquals(2, warm.getHitCount());
+  }
+
+  @Test
+  void testSnapshot_SubclassDevicesAreResolvedAgain(@TempDir Path dir) throws IOException {
+    String iphone = "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) Mobile/15E148";
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LazyDeviceResolver());
+    resolver.resolveDevice(request(iphone));
+    Path file = dir.resolve("devices.bin");
+    resolver.writeSnapshot(file, 10);
+
+    CachingDeviceResolver warm = new CachingDeviceResolver(new LazyDeviceResolver());
+
+    assertEquals(1, warm.loadSnapshot(file));
+    Device device = warm.resolveDevice(request(iphone));
+    assertEquals(1, warm.getHitCount());
+    assertTrue(device instanceof LazyDevice);
+    assertTrue(device.isMobile());
+  }
+
+  @Test
+  void testSnapshot_MissingOrInvalidFile(@TempDir Path dir) throws IOException {
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LiteDeviceResolver());
+    Path file = dir.resolve("devices.bin");
+
+    assertEquals(0, resolver.loadSnapshot(file));
+
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> resolver.loadSnapshot(file));
+  }
+
+  @Test
+  void testSnapshot_CorruptDeviceCode(@TempDir Path dir) throws IOException {
+    CachingDeviceResolver resolver = new CachingDeviceResolver(new LiteDeviceResolver());
+    resolver.resolveDevice(request(DESKTOP_USER_AGENT));
+    Path file = dir.resolve("devices.bin");
+    resolver.writeSnapshot(file, 1);
+    byte[] snapshot = Files.readAllBytes(file);
+    snapshot[snapshot.length - 2] = (byte) DeviceCodes.COUNT;
+    Files.write(file, snapshot);
+
+    CachingDeviceResolver warm = new CachingDeviceResolver(new LiteDeviceResolver());
+    assertThrows(IOException.class, () -> warm.loadSnapshot(file));
+  }
+
+  @Test
+  void testResolveDevice_LongUserAgentsAreCachedByTheirPrefix() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver();
+    delegate.setMaxUserAgentLength(256);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+    String prefix = DESKTOP_USER_AGENT + " ".repeat(256);
+
+    assertTrue(resolver.resolveDevice(request(prefix + "iPhone")).isNormal());
+    assertTrue(resolver.resolveDevice(request(prefix + "Android")).isNormal());
+    assertEquals(1, resolver.size());
+    assertEquals(1, resolver.getHitCount());
+  }
+
+  @Test
+  void testResolveDevice_SubclassesAreCachedByTheWholeUserAgent() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver() {};
+    delegate.setMaxUserAgentLength(256);
+    CachingDeviceResolver resolver = new CachingDeviceResolver(delegate);
+    String prefix = DESKTOP_USER_AGENT + " ".repeat(256);
+
+    resolver.resolveDevice(request(prefix + "iPhone"));
+    resolver.resolveDevice(request(prefix + "Android"));
+
+    assertEquals(2, resolver.size());
+    assertEquals(0, resolver.getHitCount());
+  }
+
+  /** Resolver that returns devices of its own. */
+  private static class LazyDeviceResolver extends LiteDeviceResolver {
+
+    @Override
+    protected Device resolveWithPlatform(DeviceType deviceType, DevicePlatform devicePlatform) {
+      return new LazyDevice(request -> LiteDevice.from(deviceType, devicePlatform), null);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class CompiledRulesTest {
+
+  private static final String[] USER_AGENTS = {
+    "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/89.0 Safari/537.36",
+    "Mozilla/5.0 (Linux; Android 13; Pixel 7) Chrome/120.0 Mobile Safari/537.36",
+    "Mozilla/5.0 (iPad; CPU OS 14_1 like Mac OS X) Mobile/15E148",
+    "Mozilla/5.0 (PlayBook; U; RIM Tablet OS 2.1.0; en-US)",
+    "Nokia6230/2.0 (04.44) Profile/MIDP-2.0 Configuration/CLDC-1.1",
+    "Opera/9.80 (J2ME/MIDP; Opera Mini/9.80 (S60; SymbOS; Opera Mobi/23.348; U; en)"
+  };
+
+  @Test
+  void testWriteAndRead() throws IOException {
+    CompiledRules compiled = LiteUserAgentResolver.compileDefaultRules();
+
+    CompiledRules read = CompiledRules.read(ByteBuffer.wrap(bytes(compiled, 42)), 42);
+
+    assertNotNull(read);
+    assertArrayEquals(compiled.operaMiniHeaders, read.operaMiniHeaders);
+    for (String userAgent : USER_AGENTS) {
+      assertEquals(
+          compiled.userAgentKeywords.scanIgnoreCase(userAgent),
+          read.userAgentKeywords.scanIgnoreCase(userAgent),
+          userAgent);
+      assertEquals(
+          compiled.mobilePrefixes.matches(userAgent),
+          read.mobilePrefixes.matches(userAgent),
+          userAgent);
+    }
+  }
+
+  @Test
+  void testRead_OtherFingerprint() throws IOException {
+    byte[] snapshot = bytes(LiteUserAgentResolver.compileDefaultRules(), 42);
+
+    assertNull(CompiledRules.read(ByteBuffer.wrap(snapshot), 43));
+  }
+
+  @Test
+  void testRead_OtherFormatVersion() throws IOException {
+    byte[] snapshot = bytes(LiteUserAgentResolver.compileDefaultRules(), 42);
+    ByteBuffer.wrap(snapshot).putInt(4, CompiledRules.FORMAT_VERSION - 1);
+
+    assertNull(CompiledRules.read(ByteBuffer.wrap(snapshot), 42));
+  }
+
+  @Test
+  void testLoadDefault_MatchesBuiltInRules() throws IOException {
+    int fingerprint = LiteUserAgentResolver.defaultRulesFingerprint();
+
+    CompiledRules loaded = CompiledRules.loadDefault(fingerprint);
+
+    assertNotNull(loaded, "the build compiles " + CompiledRules.DEFAULT_RESOURCE);
+    assertArrayEquals(
+        bytes(LiteUserAgentResolver.compileDefaultRules(), fingerprint),
+        bytes(loaded, fingerprint));
+  }
+
+  private static byte[] bytes(CompiledRules rules, int fingerprint) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    rules.writeTo(out, fingerprint);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,54 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DeviceCodesTest {
+
+  @Test
+  void testEncodeAndDecode() {
+    Set<Byte> codes = new HashSet<>();
+    for (DeviceType type : DeviceType.values()) {
+      for (DevicePlatform platform : DevicePlatform.values()) {
+        Device device = LiteDevice.from(type, platform);
+        byte code = DeviceCodes.encode(device);
+
+        assertEquals(DeviceCodes.of(type, platform), code);
+        assertSame(device, DeviceCodes.decode(code));
+        assertEquals(type, DeviceCodes.typeOf(code));
+        assertEquals(platform, DeviceCodes.platformOf(code));
+        codes.add(code);
+      }
+    }
+    codes.add(DeviceCodes.encode(LiteDevice.BOT_INSTANCE));
+    assertEquals(DeviceCodes.COUNT, codes.size());
+  }
+
+  @Test
+  void testEncode_Bot() {
+    byte code = DeviceCodes.encode(LiteDevice.BOT_INSTANCE);
+
+    assertEquals(DeviceCodes.BOT, code);
+    assertSame(LiteDevice.BOT_INSTANCE, DeviceCodes.decode(code));
+    assertEquals(DeviceType.NORMAL, DeviceCodes.typeOf(code));
+    assertEquals(DevicePlatform.UNKNOWN, DeviceCodes.platformOf(code));
+  }
+
+  @Test
+  void testEncode_OtherDevice() {
+    Device device = new LazyDevice(request -> LiteDevice.TABLET_INSTANCE, null);
+
+    assertSame(LiteDevice.TABLET_INSTANCE, DeviceCodes.decode(DeviceCodes.encode(device)));
+  }
+
+  @Test
+  void testDecode_InvalidCode() {
+    assertThrows(IllegalArgumentException.class, () -> DeviceCodes.decode(-1));
+    assertThrows(IllegalArgumentException.class, () -> DeviceCodes.decode(DeviceCodes.COUNT));
+  }
+}
@@ -0,0 +1,134 @@
+package org.useragent.parse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class DeviceResolverAutoConfigurationTest {
+
+  private static final String IPHONE_USER_AGENT =
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) AppleWebKit/605.1.15"
+          + " (KHTML, like Gecko) Version/14.0.3 Mobile/15E148 Safari/604.1";
+
+  private final WebApplicationContextRunner contextRunner =
+      new WebApplicationContextRunner()
+          .withConfiguration(AutoConfigurations.of(DeviceResolverAutoConfiguration.class));
+
+  @Test
+  void testDefaults() {
+    contextRunner.run(
+        context -> {
+          assertThat(context).hasSingleBean(LiteDeviceResolver.class);
+          assertThat(context).doesNotHaveBean(CachingDeviceResolver.class);
+          LiteDeviceResolver resolver = context.getBean(LiteDeviceResolver.class);
+          assertThat(resolver.getMaxUserAgentLength())
+              .isEqualTo(LiteUserAgentResolver.DEFAULT_MAX_USER_AGENT_LENGTH);
+          assertThat(resolver.compiledRules().prefilter).isNull();
+
+          Device device = filter(context.getBean(FilterRegistrationBean.class));
+          assertThat(device).isSameAs(LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS));
+        });
+  }
+
+  @Test
+  void testProperties() {
+    contextRunner
+        .withPropertyValues(
+            "useragent.resolver.engine=vector",
+            "useragent.resolver.cache-size=100",
+            "useragent.resolver.max-user-agent-length=256",
+            "useragent.resolver.lazy=true")
+        .run(
+            context -> {
+              LiteDeviceResolver resolver = context.getBean(LiteDeviceResolver.class);
+              assertThat(resolver.getMaxUserAgentLength()).isEqualTo(256);
+              assertThat(resolver.compiledRules().prefilter != null)
+                  .isEqualTo(LiteUserAgentResolver.isVectorPrefilterAvailable());
+              assertThat(context.getBean(DeviceResolver.class))
+                  .isSameAs(context.getBean(CachingDeviceResolver.class));
+
+              Device device = filter(context.getBean(FilterRegistrationBean.class));
+              assertThat(device).isInstanceOf(LazyDevice.class);
+              assertThat(device.isMobile()).isTrue();
+              assertThat(context.getBean(CachingDeviceResolver.class).size()).isEqualTo(1);
+            });
+  }
+
+  @Test
+  void testCacheSnapshot(@TempDir Path dir) {
+    Path file = dir.resolve("devices.bin");
+    contextRunner
+        .withPropertyValues(
+            "useragent.resolver.cache-size=100", "useragent.resolver.cache-snapshot=" + file)
+        .run(
+            context -> {
+              assertThat(context).hasSingleBean(DeviceCacheSnapshot.class);
+              filter(context.getBean(FilterRegistrationBean.class));
+            });
+    assertThat(Files.exists(file)).isTrue();
+
+    contextRunner
+        .withPropertyValues(
+            "useragent.resolver.cache-size=100", "useragent.resolver.cache-snapshot=" + file)
+        .run(
+            context ->
+                assertThat(context.getBean(CachingDeviceResolver.class).size()).isEqualTo(1));
+  }
+
+  @Test
+  void testCacheSnapshotWithoutCache(@TempDir Path dir) {
+    contextRunner
+        .withPropertyValues("useragent.resolver.cache-snapshot=" + dir.resolve("devices.bin"))
+        .run(context -> assertThat(context).doesNotHaveBean(DeviceCacheSnapshot.class));
+  }
+
+  @Test
+  void testUserDefinedResolver() {
+    contextRunner
+        .withUserConfiguration(ResolverConfiguration.class)
+        .run(
+            context ->
+                assertThat(context.getBean(LiteDeviceResolver.class))
+                    .isSameAs(context.getBean("customResolver")));
+  }
+
+  @Test
+  void testDisabled() {
+    contextRunner
+        .withPropertyValues("useragent.resolver.enabled=false")
+        .run(
+            context -> {
+              assertThat(context).doesNotHaveBean(LiteDeviceResolver.class);
+              assertThat(context).doesNotHaveBean(FilterRegistrationBean.class);
+            });
+  }
+
+  private static Device filter(FilterRegistrationBean<?> registration) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("User-Agent", IPHONE_USER_AGENT);
+    registration
+        .getFilter()
+        .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    return (Device) request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE);
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  static class ResolverConfiguration {
+
+    @Bean
+    LiteDeviceResolver customResolver() {
+      return new LiteDeviceResolver();
+    }
+  }
+}
@@ -2,11 +2,20 @@ package org.useragent.parse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,4 +50,92 @@ class DeviceResolverHandlerInterceptorTest {
     assertNotNull(request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
     assertEquals(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
   }
+
+  @Test
+  void testPreHandle_Lazy() throws Exception {
+    Device device = LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID);
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+    interceptor = new DeviceResolverHandlerInterceptor(deviceResolver, true);
+
+    assertTrue(interceptor.preHandle(request, response, null));
+    verify(deviceResolver, never()).resolveDevice(request);
+
+    assertSame(device, DeviceUtils.getCurrentDevice(request));
+    assertSame(device, DeviceUtils.getCurrentDevice(request));
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+    verify(deviceResolver, times(1)).resolveDevice(request);
+  }
+
+  @Test
+  void testPreHandle_LazyDeviceMethods() throws Exception {
+    Device device = LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS);
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+    interceptor = new DeviceResolverHandlerInterceptor(deviceResolver, true);
+
+    interceptor.preHandle(request, response, null);
+    Device lazy = (Device) request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE);
+
+    assertTrue(lazy.isMobile());
+    assertEquals(DevicePlatform.IOS, lazy.getDevicePlatform());
+    verify(deviceResolver, times(1)).resolveDevice(request);
+  }
+
+  @Test
+  void testPreHandle_KeepsStoredDevice() throws Exception {
+    Device device = LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS);
+    request.setAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+
+    assertTrue(interceptor.preHandle(request, response, null));
+
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+    verify(deviceResolver, never()).resolveDevice(request);
+  }
+
+  /**
+   * Serves many requests at once through one interceptor and caching resolver, on virtual threads
+   * when the runtime has them and on a pool of platform threads otherwise.
+   */
+  @Test
+  void testPreHandle_ConcurrentRequests() throws Exception {
+    DeviceResolverHandlerInterceptor shared =
+        new DeviceResolverHandlerInterceptor(
+            new CachingDeviceResolver(new LiteDeviceResolver(), 16), true);
+    String[] userAgents = {
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) Mobile/15E148",
+      "Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari",
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/89.0.4389.82 Safari/537.36"
+    };
+    Device[] expected = {
+      LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS),
+      LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID),
+      LiteDevice.NORMAL_INSTANCE
+    };
+    ExecutorService executor;
+    try {
+      executor =
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException ex) {
+      executor = Executors.newFixedThreadPool(32);
+    }
+    try {
+      List<Future<Device>> devices = new ArrayList<>();
+      for (int i = 0; i < 5_000; i++) {
+        String userAgent = userAgents[i % userAgents.length];
+        devices.add(
+            executor.submit(
+                () -> {
+                  MockHttpServletRequest request = new MockHttpServletRequest();
+                  request.addHeader("User-Agent", userAgent);
+                  shared.preHandle(request, response, null);
+                  return DeviceUtils.getCurrentDevice(request);
+                }));
+      }
+      for (int i = 0; i < devices.size(); i++) {
+        assertSame(expected[i % expected.length], devices.get(i).get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
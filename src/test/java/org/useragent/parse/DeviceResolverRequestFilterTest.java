@@ -0,0 +1,86 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceResolverRequestFilterTest {
+
+  @Mock private DeviceResolver deviceResolver;
+
+  private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Test
+  void testDoFilter() throws Exception {
+    Device device = LiteDevice.from(DeviceType.MOBILE, DevicePlatform.ANDROID);
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+    MockFilterChain chain = new MockFilterChain();
+
+    new DeviceResolverRequestFilter(deviceResolver).doFilter(request, response, chain);
+
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+    assertSame(request, chain.getRequest());
+  }
+
+  @Test
+  void testDoFilter_ResolvesOnceAcrossDispatches() throws Exception {
+    Device device = LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS);
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+    DeviceResolverRequestFilter filter = new DeviceResolverRequestFilter(deviceResolver);
+    DeviceResolverHandlerInterceptor interceptor =
+        new DeviceResolverHandlerInterceptor(deviceResolver);
+
+    filter.doFilter(request, response, new MockFilterChain());
+    interceptor.preHandle(request, response, null);
+    for (DispatcherType dispatcherType :
+        new DispatcherType[] {DispatcherType.FORWARD, DispatcherType.ERROR, DispatcherType.ASYNC}) {
+      request.setDispatcherType(dispatcherType);
+      filter.doFilter(request, response, new MockFilterChain());
+      interceptor.preHandle(request, response, null);
+    }
+
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+    verify(deviceResolver, times(1)).resolveDevice(any(HttpServletRequest.class));
+  }
+
+  @Test
+  void testDoFilter_ErrorDispatchWithoutDevice() throws Exception {
+    Device device = LiteDevice.NORMAL_INSTANCE;
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+    request.setDispatcherType(DispatcherType.ERROR);
+
+    new DeviceResolverRequestFilter(deviceResolver)
+        .doFilter(request, response, new MockFilterChain());
+
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+  }
+
+  @Test
+  void testDoFilter_Lazy() throws Exception {
+    Device device = LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS);
+    when(deviceResolver.resolveDevice(request)).thenReturn(device);
+
+    new DeviceResolverRequestFilter(deviceResolver, true)
+        .doFilter(request, response, new MockFilterChain());
+    verify(deviceResolver, never()).resolveDevice(request);
+
+    assertSame(device, DeviceUtils.getCurrentDevice(request));
+    verify(deviceResolver, times(1)).resolveDevice(request);
+  }
+}
@@ -0,0 +1,87 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+class DeviceResolverWebFilterAllocationTest {
+
+  private static final int ITERATIONS = 10_000;
+
+  @Test
+  void testFilter_DoesNotAllocate() {
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    DeviceResolverWebFilter filter = new DeviceResolverWebFilter();
+    WebFilterChain chain = exchange -> Mono.empty();
+    ServerWebExchange[] exchanges = {
+      userAgent(
+          "Mozilla/5.0 (iPad; CPU OS 14_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko)"
+              + " Version/14.0 Mobile/15E148 Safari/604.1"),
+      userAgent(
+          "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+              + " Chrome/89.0.4389.82 Safari/537.36")
+    };
+    Device[] expected = new Device[exchanges.length];
+    for (int i = 0; i < exchanges.length; i++) {
+      filter.filter(exchanges[i], chain);
+      expected[i] = ReactiveDeviceUtils.getCurrentDevice(exchanges[i]);
+    }
+    // warm up first, so that class loading and profiling do not count against the filter
+    for (int i = 0; i < 10 * ITERATIONS; i++) {
+      filter.filter(exchanges[i % exchanges.length], chain);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      filter.filter(exchanges[i % exchanges.length], chain);
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    for (int i = 0; i < exchanges.length; i++) {
+      assertEquals(expected[i], ReactiveDeviceUtils.getCurrentDevice(exchanges[i]));
+    }
+    assertTrue(expected[1].isNormal());
+    assertTrue(
+        allocated < ITERATIONS,
+        "filter allocated " + allocated + " bytes over " + ITERATIONS + " calls");
+  }
+
+  /** An exchange whose header lookups do not allocate, unlike case-insensitive headers. */
+  private static ServerWebExchange userAgent(String userAgent) {
+    LinkedMultiValueMap<String, String> values = new LinkedMultiValueMap<>();
+    values.add(HttpHeaders.USER_AGENT, userAgent);
+    HttpHeaders headers = new HttpHeaders(values);
+    ServerHttpRequest request =
+        new ServerHttpRequestDecorator(MockServerHttpRequest.get("/").build()) {
+          @Override
+          public HttpHeaders getHeaders() {
+            return headers;
+          }
+        };
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+    return new ServerWebExchangeDecorator(exchange) {
+      @Override
+      public ServerHttpRequest getRequest() {
+        return request;
+      }
+    };
+  }
+}
@@ -0,0 +1,63 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+class DeviceResolverWebFilterTest {
+
+  private final DeviceResolverWebFilter filter = new DeviceResolverWebFilter();
+
+  @Test
+  void testFilter_StoresDeviceBeforeChain() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/")
+                .header(
+                    "User-Agent",
+                    "Mozilla/5.0 (Linux; Android 9; SM-G960F) AppleWebKit/537.36 (KHTML, like"
+                        + " Gecko) Chrome/74.0.3729.157 Mobile Safari/537.36"));
+    AtomicReference<Device> seenByChain = new AtomicReference<>();
+
+    filter
+        .filter(
+            exchange,
+            e -> {
+              seenByChain.set(ReactiveDeviceUtils.getCurrentDevice(e));
+              return Mono.empty();
+            })
+        .block();
+
+    LiteDevice device = (LiteDevice) seenByChain.get();
+    assertEquals(DeviceType.MOBILE, device.getDeviceType());
+    assertEquals(DevicePlatform.ANDROID, device.getDevicePlatform());
+  }
+
+  @Test
+  void testFilter_ReadsOtherHeaders() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(
+            MockServerHttpRequest.get("/")
+                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)")
+                .header("X-OperaMini-Phone-UA", "Nokia6300"));
+
+    filter.filter(exchange, e -> Mono.empty()).block();
+
+    assertTrue(ReactiveDeviceUtils.getRequiredCurrentDevice(exchange).isMobile());
+  }
+
+  @Test
+  void testFilter_WithoutUserAgent() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+    filter.filter(exchange, e -> Mono.empty()).block();
+
+    assertSame(LiteDevice.NORMAL_INSTANCE, ReactiveDeviceUtils.getCurrentDevice(exchange));
+  }
+}
@@ -0,0 +1,105 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeviceRulesTest {
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/89.0.4389.82 Safari/537.36";
+
+  @TempDir Path directory;
+
+  @Test
+  void testLoad_Json() throws IOException {
+    Path file = directory.resolve("rules.json");
+    Files.writeString(
+        file,
+        "{\"tabletUserAgentKeywords\": [\"lenovo tab\"], \"mobileUserAgentPrefixes\": [\"xiao\"]}");
+
+    DeviceRules rules = DeviceRules.load(file);
+
+    assertEquals(List.of("lenovo tab"), rules.getTabletUserAgentKeywords());
+    assertEquals(List.of("xiao"), rules.getMobileUserAgentPrefixes());
+    assertEquals(List.of(), rules.getMobileUserAgentKeywords());
+    assertFalse(rules.isReplaceDefaults());
+  }
+
+  @Test
+  void testLoad_Yaml() throws IOException {
+    Path file = directory.resolve("rules.yml");
+    Files.writeString(
+        file, "mobileUserAgentKeywords:\n  - kaios\noperaMiniHeaderNames: [X-Custom]\n");
+
+    DeviceRules rules = DeviceRules.load(file);
+
+    assertEquals(List.of("kaios"), rules.getMobileUserAgentKeywords());
+    assertEquals(List.of("X-Custom"), rules.getOperaMiniHeaderNames());
+  }
+
+  @Test
+  void testLoad_Invalid() throws IOException {
+    Path json = directory.resolve("rules.json");
+    Files.writeString(json, "{\"tabletKeywords\": [\"typo\"]}");
+    Path yaml = directory.resolve("rules.yaml");
+    Files.writeString(yaml, "tabletUserAgentKeywords: [unclosed");
+
+    assertThrows(IOException.class, () -> DeviceRules.load(json));
+    assertThrows(IOException.class, () -> DeviceRules.load(yaml));
+  }
+
+  @Test
+  void testLoad_LowerCasesUserAgentKeywords() throws IOException {
+    Path file = directory.resolve("rules.json");
+    Files.writeString(
+        file,
+        "{\"mobileUserAgentKeywords\": [\"KaiOS\"], \"mobileUserAgentPrefixes\": [\"XIAO\"],"
+            + " \"operaMiniHeaderNames\": [\"X-Custom\"]}");
+
+    DeviceRules rules = DeviceRules.load(file);
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+    resolver.setRules(rules);
+
+    assertEquals(List.of("kaios"), rules.getMobileUserAgentKeywords());
+    assertEquals(List.of("xiao"), rules.getMobileUserAgentPrefixes());
+    assertEquals(List.of("X-Custom"), rules.getOperaMiniHeaderNames());
+    assertTrue(resolver.resolveDevice("KaiOS/2.5 Nokia 8110").isMobile());
+    assertTrue(resolver.resolveDevice("Xiaomi Redmi").isMobile());
+  }
+
+  @Test
+  void testSetRules_AddsToDefaults() {
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+    String lenovo = "Mozilla/5.0 (X11; Lenovo Tab P11) AppleWebKit/537.36";
+    assertTrue(resolver.resolveDevice(lenovo).isNormal());
+
+    resolver.setRules(new DeviceRules(null, null, List.of("lenovo tab"), null, null, false));
+
+    assertSame(
+        LiteDevice.from(DeviceType.TABLET, DevicePlatform.UNKNOWN), resolver.resolveDevice(lenovo));
+    assertTrue(resolver.resolveDevice("BlackBerry9700/5.0.0.351").isMobile());
+    assertTrue(resolver.resolveDevice(DESKTOP_USER_AGENT).isNormal());
+  }
+
+  @Test
+  void testSetRules_ReplaceDefaults() {
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+
+    resolver.setRules(new DeviceRules(null, List.of("kaios"), null, null, null, true));
+
+    assertTrue(resolver.resolveDevice("KaiOS/2.5 Nokia 8110").isMobile());
+    assertTrue(resolver.resolveDevice("BlackBerry9700/5.0.0.351").isNormal());
+    assertTrue(resolver.resolveDevice("Mozilla/5.0 (iPhone; CPU iPhone OS 14_1)").isMobile());
+  }
+}
@@ -0,0 +1,57 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeviceRulesWatcherTest {
+
+  private static final String KAIOS_USER_AGENT = "Mozilla/5.0 (X11; rv:48.0) KaiOS/2.5";
+
+  private static final String LENOVO_USER_AGENT = "Mozilla/5.0 (X11; Lenovo Tab P11)";
+
+  @TempDir Path directory;
+
+  @Test
+  void testWatcher_LoadsAndReloads() throws Exception {
+    Path file = directory.resolve("rules.json");
+    Files.writeString(file, "{\"mobileUserAgentKeywords\": [\"kaios\"]}");
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+
+    try (DeviceRulesWatcher watcher = new DeviceRulesWatcher(file, resolver)) {
+      assertTrue(resolver.resolveDevice(KAIOS_USER_AGENT).isMobile());
+      assertTrue(resolver.resolveDevice(LENOVO_USER_AGENT).isNormal());
+
+      Path next = directory.resolve("rules.json.tmp");
+      Files.writeString(next, "{\"tabletUserAgentKeywords\": [\"lenovo tab\"]}");
+      Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (!resolver.resolveDevice(LENOVO_USER_AGENT).isTablet()
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(20);
+      }
+      assertTrue(resolver.resolveDevice(LENOVO_USER_AGENT).isTablet());
+      assertTrue(resolver.resolveDevice(KAIOS_USER_AGENT).isNormal());
+    }
+  }
+
+  @Test
+  void testReload_InvalidFileKeepsRules() throws Exception {
+    Path file = directory.resolve("rules.json");
+    Files.writeString(file, "{\"mobileUserAgentKeywords\": [\"kaios\"]}");
+    LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+
+    try (DeviceRulesWatcher watcher = new DeviceRulesWatcher(file, resolver)) {
+      Files.writeString(file, "{not json");
+
+      assertFalse(watcher.reload());
+      assertTrue(resolver.resolveDevice(KAIOS_USER_AGENT).isMobile());
+    }
+  }
+}
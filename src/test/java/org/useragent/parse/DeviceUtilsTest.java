@@ -2,6 +2,7 @@ package org.useragent.parse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -69,4 +70,18 @@ class DeviceUtilsTest {
     assertNotNull(currentDevice);
     assertEquals(device, currentDevice);
   }
+
+  @Test
+  void testGetCurrentDevice_RequestAttributes_Lazy() {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    requestAttributes.setAttribute(
+        DeviceUtils.CURRENT_DEVICE_ATTRIBUTE,
+        new LazyDevice(r -> device, request),
+        RequestAttributes.SCOPE_REQUEST);
+
+    Device currentDevice = DeviceUtils.getCurrentDevice(requestAttributes);
+
+    assertSame(device, currentDevice);
+    assertSame(device, request.getAttribute(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE));
+  }
 }
@@ -0,0 +1,88 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class FrequencySketchTest {
+
+  @Test
+  void testIncrement_CountsUpToFifteen() {
+    FrequencySketch sketch = new FrequencySketch(1024);
+
+    for (int i = 0; i < 20; i++) {
+      sketch.increment("key");
+    }
+
+    assertEquals(15, sketch.frequency("key"));
+    assertEquals(0, sketch.frequency("other"));
+  }
+
+  @Test
+  void testIncrement_ConcurrentIncrementsAreNotLost() throws InterruptedException {
+    FrequencySketch sketch = new FrequencySketch(1024);
+
+    runConcurrently(15, thread -> sketch.increment("key"));
+
+    assertEquals(15, sketch.frequency("key"));
+  }
+
+  @Test
+  void testIncrement_ResetsUnderContention() throws InterruptedException {
+    FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 15; i++) {
+      sketch.increment("old");
+    }
+
+    runConcurrently(
+        8,
+        thread -> {
+          for (int i = 0; i < 10_000; i++) {
+            sketch.increment("key-" + thread + "-" + i);
+          }
+        });
+
+    // without the periodic halving every counter of this small sketch would saturate at 15
+    int saturated = 0;
+    for (int i = 0; i < 100; i++) {
+      if (sketch.frequency("probe-" + i) == 15) {
+        saturated++;
+      }
+    }
+    assertTrue(saturated < 10, "saturated probes: " + saturated);
+    assertTrue(sketch.frequency("old") < 15);
+  }
+
+  private static void runConcurrently(int threads, ThreadTask task) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> started = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      int thread = i;
+      Thread worker =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException ex) {
+                  Thread.currentThread().interrupt();
+                  return;
+                }
+                task.run(thread);
+              });
+      worker.start();
+      started.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : started) {
+      worker.join();
+    }
+  }
+
+  private interface ThreadTask {
+    void run(int thread);
+  }
+}
@@ -0,0 +1,138 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class KeywordAutomatonTest {
+
+  @Test
+  void testScan_NoMatch() {
+    KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("ipad", 1, "kindle", 2));
+
+    assertEquals(0, automaton.scan("mozilla/5.0 (windows nt 10.0; win64; x64)"));
+    assertEquals(0, automaton.scan(""));
+  }
+
+  @Test
+  void testScan_CollectsEveryHit() {
+    KeywordAutomaton automaton =
+        KeywordAutomaton.compile(Map.of("android", 1, "mobile", 2, "silk", 4));
+
+    assertEquals(3, automaton.scan("linux; android 9; mobile safari"));
+    assertEquals(1, automaton.scan("linux; android 9; tablet"));
+  }
+
+  @Test
+  void testScan_OverlappingKeywords() {
+    Map<String, Integer> keywords = new LinkedHashMap<>();
+    keywords.put("phone", 1);
+    keywords.put("smartphone", 2);
+    keywords.put("hp-tablet", 4);
+    keywords.put("p-t", 8);
+    KeywordAutomaton automaton = KeywordAutomaton.compile(keywords);
+
+    assertEquals(3, automaton.scan("a smartphone"));
+    assertEquals(12, automaton.scan("hhp-tablet"));
+    assertEquals(1, automaton.scan("smartphonx phone"));
+  }
+
+  @Test
+  void testScan_KeywordsAreCaseSensitive() {
+    KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("nintendo DS", 1));
+
+    assertEquals(0, automaton.scan("nintendo ds"));
+    assertEquals(1, automaton.scan("a nintendo DS"));
+  }
+
+  @Test
+  void testScan_NonAsciiKeyword() {
+    KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("téléphone", 1));
+
+    assertEquals(1, automaton.scan("un téléphone"));
+    assertEquals(0, automaton.scan("un telephone"));
+  }
+
+  @Test
+  void testScan_EmptyKeywordMatchesEverything() {
+    KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("", 1, "wap", 2));
+
+    assertEquals(1, automaton.scan(""));
+    assertEquals(3, automaton.scan("wap"));
+  }
+
+  @Test
+  void testScanIgnoreCase() {
+    KeywordAutomaton automaton =
+        KeywordAutomaton.compile(Map.of("iphone", 1, "nintendo DS", 2, "téléphone", 4));
+
+    assertEquals(1, automaton.scanIgnoreCase("Mozilla/5.0 (IPHONE; CPU iPhone OS 14_1)"));
+    assertEquals(0, automaton.scanIgnoreCase("Nintendo DS"));
+    assertEquals(4, automaton.scanIgnoreCase("TÉLÉPHONE"));
+  }
+
+  @Test
+  void testStartChars() {
+    KeywordAutomaton automaton = KeywordAutomaton.compile(Map.of("ipad", 1, "up.link", 2));
+
+    assertArrayEquals("IUiu".toCharArray(), automaton.startChars());
+    assertNull(KeywordAutomaton.compile(Map.of("", 1, "wap", 2)).startChars());
+    assertNull(KeywordAutomaton.compile(Map.of("éclair", 1)).startChars());
+  }
+
+  @Test
+  void testScanIgnoreCase_Prefiltered() {
+    KeywordAutomaton automaton =
+        KeywordAutomaton.compile(Map.of("phone", 1, "smartphone", 2, "kindle", 4, "up.b", 8));
+    KeywordPrefilter scalar = scalarPrefilter(automaton.startChars());
+
+    assertPrefilteredScan(automaton, scalar);
+  }
+
+  @Test
+  void testScanIgnoreCase_VectorPrefiltered() {
+    KeywordAutomaton automaton =
+        KeywordAutomaton.compile(Map.of("phone", 1, "smartphone", 2, "kindle", 4, "up.b", 8));
+    KeywordPrefilter vectorized = KeywordPrefilter.vectorized(automaton.startChars());
+    assumeTrue(vectorized != null, "jdk.incubator.vector is not available");
+
+    assertPrefilteredScan(automaton, vectorized);
+  }
+
+  private static void assertPrefilteredScan(
+      KeywordAutomaton automaton, KeywordPrefilter prefilter) {
+    String[] texts = {
+      "",
+      "a SmartPhone",
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/89.0 Safari/537.36",
+      "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Silk/3.0 KINDLE",
+      "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxUP.Browser",
+      "\u212aindle phone",
+      "smartphonx pHone"
+    };
+    for (String text : texts) {
+      char[] chars = text.toCharArray();
+      assertEquals(
+          automaton.scanIgnoreCase(text),
+          automaton.scanIgnoreCase(chars, chars.length, prefilter),
+          text);
+    }
+  }
+
+  private static KeywordPrefilter scalarPrefilter(char[] startChars) {
+    String starts = new String(startChars);
+    return (text, from, length) -> {
+      for (int i = from; i < length; i++) {
+        if (text[i] >= 128 || starts.indexOf(text[i]) >= 0) {
+          return i;
+        }
+      }
+      return length;
+    };
+  }
+}
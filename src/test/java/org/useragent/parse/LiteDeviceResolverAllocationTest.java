@@ -0,0 +1,81 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class LiteDeviceResolverAllocationTest {
+
+  private static final int ITERATIONS = 10_000;
+
+  @Test
+  void testResolveDevice_DoesNotAllocate() {
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    LiteDeviceResolver resolver = new LiteDeviceResolver();
+    HttpServletRequest[] requests = {
+      userAgent(
+          "Mozilla/5.0 (iPad; CPU OS 14_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko)"
+              + " Version/14.0 Mobile/15E148 Safari/604.1"),
+      userAgent(
+          "Mozilla/5.0 (Linux; Android 9; SM-G960F) AppleWebKit/537.36 (KHTML, like Gecko)"
+              + " Chrome/74.0.3729.157 Mobile Safari/537.36"),
+      userAgent(
+          "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+              + " Chrome/89.0.4389.82 Safari/537.36")
+    };
+    Device[] expected = new Device[requests.length];
+    for (int i = 0; i < requests.length; i++) {
+      expected[i] = resolver.resolveDevice(requests[i]);
+    }
+    // warm up first, so that class loading and profiling do not count against the resolver
+    for (int i = 0; i < ITERATIONS; i++) {
+      resolver.resolveDevice(requests[i % requests.length]);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    int mismatches = 0;
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      if (resolver.resolveDevice(requests[i % requests.length]) != expected[i % requests.length]) {
+        mismatches++;
+      }
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals(0, mismatches);
+    assertTrue(
+        allocated < ITERATIONS,
+        "resolveDevice allocated " + allocated + " bytes over " + ITERATIONS + " calls");
+  }
+
+  /** A request whose header lookups do not allocate, unlike the case-insensitive mock. */
+  private static HttpServletRequest userAgent(String userAgent) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("User-Agent", userAgent);
+    return new HttpServletRequestWrapper(new MockHttpServletRequest()) {
+      @Override
+      public String getHeader(String name) {
+        return headers.get(name);
+      }
+
+      @Override
+      public Enumeration<String> getHeaderNames() {
+        return Collections.emptyEnumeration();
+      }
+    };
+  }
+}
@@ -119,6 +119,50 @@ public class LiteDeviceResolverTest {
     assertEquals(DevicePlatform.UNKNOWN, device.getDevicePlatform());
   }
 
+  @Test
+  public void testResolveDevice_OperaMiniHeader() {
+    HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getHeader("User-Agent"))
+        .thenReturn(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+                + " Chrome/89.0.4389.82 Safari/537.36");
+    Mockito.when(request.getHeader("X-OperaMini-Features")).thenReturn("advanced, file_system");
+
+    LiteDeviceResolver deviceResolver = new LiteDeviceResolver();
+    LiteDevice device = (LiteDevice) deviceResolver.resolveDevice(request);
+    assertEquals(DeviceType.MOBILE, device.getDeviceType());
+    Mockito.verify(request, Mockito.never()).getHeaderNames();
+  }
+
+  @Test
+  public void testResolveDevice_CustomOperaMiniHeader() {
+    HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getHeader("User-Agent"))
+        .thenReturn(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+                + " Chrome/89.0.4389.82 Safari/537.36");
+    Mockito.when(request.getHeader("OperaMini")).thenReturn("1");
+
+    LiteDeviceResolver deviceResolver =
+        new LiteDeviceResolver() {
+          @Override
+          protected void init() {
+            super.init();
+            getOperaMiniHeaderNames().add("OperaMini");
+          }
+        };
+    LiteDevice device = (LiteDevice) deviceResolver.resolveDevice(request);
+    assertEquals(DeviceType.MOBILE, device.getDeviceType());
+
+    LiteDeviceResolver probingResolver = new LiteDeviceResolver();
+    probingResolver.setOperaMiniHeaderScan(false);
+    Mockito.when(request.getHeaderNames())
+        .thenReturn(Collections.enumeration(List.of("User-Agent", "OperaMini")));
+    device = (LiteDevice) probingResolver.resolveDevice(request);
+    assertEquals(DeviceType.NORMAL, device.getDeviceType());
+    Mockito.verify(request, Mockito.never()).getHeaderNames();
+  }
+
   @Test
   public void testResolveDevice_MobilePrefixUserAgent() {
     HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -199,4 +243,25 @@ public class LiteDeviceResolverTest {
     assertEquals(DeviceType.TABLET, device.getDeviceType());
     assertEquals(DevicePlatform.UNKNOWN, device.getDevicePlatform());
   }
+
+  @Test
+  public void testResolveDevice_SubclassTabletUserAgentKeywords() {
+    HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getHeader("User-Agent"))
+        .thenReturn(
+            "Mozilla/5.0 (Linux; U; en-us; KFAPWI Build/JDQ39) AppleWebKit/535.19 (KHTML, like"
+                + " Gecko) Version/4.0 Safari/535.19");
+
+    LiteDeviceResolver deviceResolver =
+        new LiteDeviceResolver() {
+          @Override
+          protected void init() {
+            super.init();
+            getTabletUserAgentKeywords().add("kfapwi");
+          }
+        };
+    LiteDevice device = (LiteDevice) deviceResolver.resolveDevice(request);
+    assertEquals(DeviceType.TABLET, device.getDeviceType());
+    assertEquals(DevicePlatform.UNKNOWN, device.getDevicePlatform());
+  }
 }
@@ -1,6 +1,9 @@
 package org.useragent.parse;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -41,4 +44,31 @@ class LiteDeviceTest {
     assertTrue(LiteDevice.MOBILE_INSTANCE.getDeviceType() == DeviceType.MOBILE);
     assertTrue(LiteDevice.TABLET_INSTANCE.getDeviceType() == DeviceType.TABLET);
   }
+
+  @Test
+  void testFrom_SharedInstances() {
+    assertSame(
+        LiteDevice.MOBILE_INSTANCE, LiteDevice.from(DeviceType.MOBILE, DevicePlatform.UNKNOWN));
+    assertSame(
+        LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS),
+        LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS));
+  }
+
+  @Test
+  void testEqualsAndHashCode() {
+    Device iosTablet = LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS);
+
+    assertEquals(iosTablet, LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS));
+    assertEquals(DeviceCodes.of(DeviceType.TABLET, DevicePlatform.IOS), iosTablet.hashCode());
+    assertNotEquals(iosTablet, LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID));
+    assertNotEquals(LiteDevice.NORMAL_INSTANCE, LiteDevice.MOBILE_INSTANCE);
+  }
+
+  @Test
+  void testIsBot() {
+    assertTrue(LiteDevice.BOT_INSTANCE.isBot());
+    assertTrue(LiteDevice.BOT_INSTANCE.isNormal());
+    assertFalse(LiteDevice.NORMAL_INSTANCE.isBot());
+    assertNotEquals(LiteDevice.NORMAL_INSTANCE, LiteDevice.BOT_INSTANCE);
+  }
 }
@@ -0,0 +1,307 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class LiteUserAgentResolverTest {
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/89.0.4389.82 Safari/537.36";
+
+  private final LiteUserAgentResolver resolver = new LiteUserAgentResolver();
+
+  @Test
+  void testResolveDevice_UserAgentOnly() {
+    assertSame(
+        LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS),
+        resolver.resolveDevice(
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 14_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML,"
+                + " like Gecko) Version/14.0 Mobile/15E148 Safari/604.1"));
+    assertSame(
+        LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID),
+        resolver.resolveDevice("Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari"));
+    assertSame(LiteDevice.NORMAL_INSTANCE, resolver.resolveDevice(DESKTOP_USER_AGENT));
+  }
+
+  @Test
+  void testResolveDevice_NullUserAgent() {
+    assertSame(LiteDevice.NORMAL_INSTANCE, resolver.resolveDevice(null));
+  }
+
+  @Test
+  void testResolveDevice_MapHeaders() {
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("accept", "text/vnd.wap.wml");
+
+    LiteDevice device =
+        (LiteDevice) resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap());
+
+    assertEquals(DeviceType.MOBILE, device.getDeviceType());
+    assertEquals(DevicePlatform.UNKNOWN, device.getDevicePlatform());
+  }
+
+  @Test
+  void testResolveDevice_HeaderNames() {
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("X-OperaMini-Phone-UA", "Nokia6300");
+
+    Device device = resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap());
+
+    assertTrue(device.isMobile());
+  }
+
+  @Test
+  void testResolveDevice_LambdaAccessor() {
+    HeaderAccessor<String> wapProfile =
+        (profile, name) -> name.equals("x-wap-profile") ? profile : null;
+
+    Device device = resolver.resolveDevice(DESKTOP_USER_AGENT, "http://example.com", wapProfile);
+
+    assertTrue(device.isMobile());
+  }
+
+  @Test
+  void testAdaptiveRuleOrdering_DefaultOrder() {
+    assertEquals(
+        List.of(
+            ResolutionRule.MOBILE_WAP_PROFILE,
+            ResolutionRule.MOBILE_PREFIX,
+            ResolutionRule.MOBILE_ACCEPT_WAP,
+            ResolutionRule.MOBILE_KEYWORD,
+            ResolutionRule.MOBILE_OPERA_MINI),
+        resolver.getMobileRuleOrder());
+  }
+
+  @Test
+  void testAdaptiveRuleOrdering_MostFrequentFirst() {
+    resolver.setAdaptiveRuleOrdering(true);
+    Map<String, String> operaMini = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    operaMini.put("X-OperaMini-Phone-UA", "Nokia6300");
+
+    for (int i = 0; i < 100; i++) {
+      resolver.resolveDevice(DESKTOP_USER_AGENT, operaMini, HeaderAccessor.forMap());
+    }
+    for (int i = 0; i < 10; i++) {
+      resolver.resolveDevice("Nokia6230/2.0 (04.44) Profile/MIDP-2.0 Configuration/CLDC-1.1");
+    }
+    resolver.mobileRuleOrdering().reorder();
+
+    List<ResolutionRule> order = resolver.getMobileRuleOrder();
+    assertEquals(ResolutionRule.MOBILE_OPERA_MINI, order.get(0));
+    assertEquals(ResolutionRule.MOBILE_PREFIX, order.get(1));
+    assertEquals(ResolutionRule.MOBILE_WAP_PROFILE, order.get(2));
+  }
+
+  @Test
+  void testAdaptiveRuleOrdering_FollowsChangingTraffic() {
+    resolver.setAdaptiveRuleOrdering(true);
+    // matches both the prefix and the keyword check
+    String nokia = "Nokia6230/2.0 (04.44) Profile/MIDP-2.0 Configuration/CLDC-1.1";
+    String android = "Mozilla/5.0 (Linux; Android 13; Pixel 7) Chrome/120.0 Mobile Safari/537.36";
+
+    for (int i = 0; i < 100; i++) {
+      resolver.resolveDevice(nokia);
+    }
+    resolver.mobileRuleOrdering().reorder();
+    List<ResolutionRule> order = resolver.getMobileRuleOrder();
+    assertTrue(
+        order.indexOf(ResolutionRule.MOBILE_PREFIX) < order.indexOf(ResolutionRule.MOBILE_KEYWORD));
+
+    // the keyword check now matches 70% of the requests, the prefix check 40%; the keyword check
+    // only runs on the requests the prefix check did not match, so it has fewer matches
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 100; i++) {
+        resolver.resolveDevice(i < 40 ? nokia : i < 70 ? android : DESKTOP_USER_AGENT);
+      }
+      resolver.mobileRuleOrdering().reorder();
+    }
+
+    assertEquals(ResolutionRule.MOBILE_KEYWORD, resolver.getMobileRuleOrder().get(0));
+  }
+
+  @Test
+  void testAdaptiveRuleOrdering_SameDevices() {
+    LiteUserAgentResolver adaptive = new LiteUserAgentResolver();
+    adaptive.setAdaptiveRuleOrdering(true);
+    Map<String, String> wap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    wap.put("Accept", "text/vnd.wap.wml");
+    String[] userAgents = {
+      DESKTOP_USER_AGENT,
+      "Mozilla/5.0 (Linux; Android 13; Pixel 7) Chrome/120.0 Mobile Safari/537.36",
+      "Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari/537.36",
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_1 like Mac OS X) Mobile/15E148",
+      "Mozilla/5.0 (iPad; CPU OS 14_1 like Mac OS X) Mobile/15E148",
+      "Mozilla/5.0 (Linux; U; Android 4.0.3; KFTT) Silk/3.68 Safari/535.19 Silk-Accelerated=true",
+      "Mozilla/5.0 (Kindle Fire; Silk/1.0) Mobile Safari",
+      "Nokia6230/2.0 (04.44) Profile/MIDP-2.0 Configuration/CLDC-1.1",
+      "BlackBerry9700/5.0.0.351 Profile/MIDP-2.1 Configuration/CLDC-1.1"
+    };
+
+    for (int round = 0; round < 3; round++) {
+      for (String userAgent : userAgents) {
+        for (Map<String, String> headers : List.of(Map.<String, String>of(), wap)) {
+          assertSame(
+              resolver.resolveDevice(userAgent, headers, HeaderAccessor.forMap()),
+              adaptive.resolveDevice(userAgent, headers, HeaderAccessor.forMap()),
+              userAgent);
+        }
+      }
+      adaptive.mobileRuleOrdering().reorder();
+    }
+  }
+
+  @Test
+  void testResolveDevice_ClientHintMobile() {
+    resolver.setClientHints(true);
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("Sec-CH-UA-Mobile", "?1");
+    headers.put("Sec-CH-UA-Platform", "\"Android\"");
+
+    assertSame(
+        LiteDevice.from(DeviceType.MOBILE, DevicePlatform.ANDROID),
+        resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap()));
+
+    headers.remove("Sec-CH-UA-Platform");
+    assertSame(
+        LiteDevice.from(DeviceType.MOBILE, DevicePlatform.UNKNOWN),
+        resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap()));
+  }
+
+  @Test
+  void testResolveDevice_ClientHintDesktop() {
+    resolver.setClientHints(true);
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("Sec-CH-UA-Mobile", "?0");
+    headers.put("Sec-CH-UA-Platform", "\"Windows\"");
+    headers.put("Accept", "text/vnd.wap.wml");
+
+    assertSame(
+        LiteDevice.NORMAL_INSTANCE,
+        resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap()));
+
+    resolver.setClientHints(false);
+    Device device = resolver.resolveDevice(DESKTOP_USER_AGENT, headers, HeaderAccessor.forMap());
+    assertTrue(device.isMobile());
+  }
+
+  @Test
+  void testResolveDevice_ClientHintAndroidTablet() {
+    resolver.setClientHints(true);
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("Sec-CH-UA-Mobile", "?0");
+    headers.put("Sec-CH-UA-Platform", "\"Android\"");
+
+    assertSame(
+        LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID),
+        resolver.resolveDevice(
+            "Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari",
+            headers,
+            HeaderAccessor.forMap()));
+  }
+
+  @Test
+  void testResolveDevice_ClientHintsIgnoredByDefault() {
+    Map<String, String> mobileHint = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    mobileHint.put("Sec-CH-UA-Mobile", "?1");
+    mobileHint.put("Sec-CH-UA-Platform", "\"Android\"");
+    Map<String, String> desktopHint = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    desktopHint.put("Sec-CH-UA-Mobile", "?0");
+    desktopHint.put("Sec-CH-UA-Platform", "\"Windows\"");
+    String ipad = "Mozilla/5.0 (iPad; CPU OS 14_4 like Mac OS X) AppleWebKit/605.1.15 Mobile";
+    String androidTablet = "Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari";
+    String androidPhone = "Mozilla/5.0 (Linux; Android 13; Pixel 7) Chrome/120.0 Mobile Safari";
+
+    for (String userAgent : List.of(ipad, androidTablet, androidPhone, DESKTOP_USER_AGENT)) {
+      Device expected = resolver.resolveDevice(userAgent);
+      for (Map<String, String> hints : List.of(mobileHint, desktopHint)) {
+        assertSame(
+            expected, resolver.resolveDevice(userAgent, hints, HeaderAccessor.forMap()), userAgent);
+      }
+    }
+    assertTrue(resolver.resolveDevice(ipad, mobileHint, HeaderAccessor.forMap()).isTablet());
+    assertTrue(
+        resolver.resolveDevice(DESKTOP_USER_AGENT, mobileHint, HeaderAccessor.forMap()).isNormal());
+  }
+
+  @Test
+  void testResolveDevice_BotDetection() {
+    String googlebot =
+        "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)";
+    String mobileGooglebot =
+        "Mozilla/5.0 (Linux; Android 6.0.1; Nexus 5X Build/MMB29P) AppleWebKit/537.36"
+            + " (KHTML, like Gecko) Chrome/120.0 Mobile Safari/537.36"
+            + " (compatible; Googlebot/2.1; +http://www.google.com/bot.html)";
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.put("Sec-CH-UA-Mobile", "?1");
+
+    assertFalse(resolver.resolveDevice(googlebot).isBot());
+    assertTrue(resolver.resolveDevice(mobileGooglebot).isMobile());
+
+    resolver.setBotDetection(true);
+    assertSame(LiteDevice.BOT_INSTANCE, resolver.resolveDevice(googlebot));
+    assertSame(LiteDevice.BOT_INSTANCE, resolver.resolveDevice(mobileGooglebot));
+    assertSame(
+        LiteDevice.BOT_INSTANCE,
+        resolver.resolveDevice("curl/8.4.0", headers, HeaderAccessor.forMap()));
+    assertFalse(resolver.resolveDevice(DESKTOP_USER_AGENT).isBot());
+  }
+
+  @Test
+  void testResolveDevice_BotDetectionRule() {
+    List<ResolutionRule> rules = new ArrayList<>();
+    resolver.setResolutionListener(rules::add);
+    resolver.setBotDetection(true);
+
+    resolver.resolveDevice("Mozilla/5.0 (compatible; bingbot/2.0)");
+
+    assertEquals(List.of(ResolutionRule.BOT), rules);
+  }
+
+  @Test
+  void testResolveDevice_MaxUserAgentLength() {
+    String padded = DESKTOP_USER_AGENT + " ".repeat(2000) + "iPhone";
+
+    assertTrue(resolver.resolveDevice(DESKTOP_USER_AGENT + " iPhone").isMobile());
+    assertTrue(resolver.resolveDevice(padded).isNormal());
+    assertEquals(1, resolver.getTruncatedCount());
+
+    resolver.setMaxUserAgentLength(4096);
+    assertTrue(resolver.resolveDevice(padded).isMobile());
+    assertEquals(1, resolver.getTruncatedCount());
+    assertThrows(IllegalArgumentException.class, () -> resolver.setMaxUserAgentLength(3));
+  }
+
+  @Test
+  void testResolveDevice_VectorPrefilter() {
+    String[] userAgents = {
+      DESKTOP_USER_AGENT,
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) Mobile/15E148",
+      "Mozilla/5.0 (Linux; Android 13; SM-X700) Chrome/120.0 Safari",
+      "Mozilla/5.0 (Linux; U; en-us; KFTT Build/IML74K) Silk/3.4 Safari/535.19",
+      "BlackBerry9700/5.0.0.351 Profile/MIDP-2.1",
+      "Opera/9.80 (J2ME/MIDP; Opera Mini/9.80 (S60; SymbOS; Opera Mobi/23.348)"
+    };
+    LiteUserAgentResolver vectorized = new LiteUserAgentResolver();
+    vectorized.setVectorPrefilter(true);
+
+    assertEquals(
+        LiteUserAgentResolver.isVectorPrefilterAvailable(),
+        vectorized.compiledRules().prefilter != null);
+    for (String userAgent : userAgents) {
+      assertSame(resolver.resolveDevice(userAgent), vectorized.resolveDevice(userAgent), userAgent);
+    }
+
+    vectorized.setVectorPrefilter(false);
+    assertEquals(null, vectorized.compiledRules().prefilter);
+  }
+}
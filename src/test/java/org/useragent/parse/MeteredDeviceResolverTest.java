@@ -0,0 +1,110 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class MeteredDeviceResolverTest {
+
+  private static final String IPHONE_USER_AGENT =
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) AppleWebKit/605.1.15"
+          + " (KHTML, like Gecko) Version/14.0.3 Mobile/15E148 Safari/604.1";
+
+  private static final String DESKTOP_USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko)"
+          + " Chrome/89.0.4389.82 Safari/537.36";
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void testResolveDevice_RecordsLatencyAndDevices() {
+    MeteredDeviceResolver resolver = new MeteredDeviceResolver(new LiteDeviceResolver(), registry);
+
+    assertTrue(resolver.resolveDevice(request(IPHONE_USER_AGENT)).isMobile());
+    assertTrue(resolver.resolveDevice(request(IPHONE_USER_AGENT)).isMobile());
+    assertTrue(resolver.resolveDevice(request(DESKTOP_USER_AGENT)).isNormal());
+
+    assertEquals(3, registry.get(MeteredDeviceResolver.DURATION_METRIC).timer().count());
+    assertEquals(2, deviceCount("mobile", "ios"));
+    assertEquals(1, deviceCount("normal", "unknown"));
+    assertEquals(0, deviceCount("tablet", "android"));
+  }
+
+  @Test
+  void testConstructor_KeepsExistingListener() {
+    LiteDeviceResolver delegate = new LiteDeviceResolver();
+    List<ResolutionRule> matched = new ArrayList<>();
+    delegate.setResolutionListener(matched::add);
+    MeteredDeviceResolver resolver = new MeteredDeviceResolver(delegate, registry);
+
+    resolver.resolveDevice(request(IPHONE_USER_AGENT));
+
+    assertEquals(List.of(ResolutionRule.MOBILE_KEYWORD), matched);
+    assertEquals(1, ruleCount(ResolutionRule.MOBILE_KEYWORD));
+  }
+
+  @Test
+  void testResolveDevice_CountsRuleHits() {
+    MeteredDeviceResolver resolver = new MeteredDeviceResolver(new LiteDeviceResolver(), registry);
+
+    resolver.resolveDevice(request(IPHONE_USER_AGENT));
+    resolver.resolveDevice(request("Mozilla/5.0 (iPad; CPU OS 14_4 like Mac OS X)"));
+    resolver.resolveDevice(request("Nokia6230/2.0"));
+    MockHttpServletRequest wapProfile = request(DESKTOP_USER_AGENT);
+    wapProfile.addHeader("x-wap-profile", "http://example.com/profile.xml");
+    resolver.resolveDevice(wapProfile);
+    resolver.resolveDevice(request(DESKTOP_USER_AGENT));
+
+    assertEquals(1, ruleCount(ResolutionRule.MOBILE_KEYWORD));
+    assertEquals(1, ruleCount(ResolutionRule.TABLET_IPAD));
+    assertEquals(1, ruleCount(ResolutionRule.MOBILE_PREFIX));
+    assertEquals(1, ruleCount(ResolutionRule.MOBILE_WAP_PROFILE));
+    assertEquals(1, ruleCount(ResolutionRule.NONE));
+    assertEquals(0, ruleCount(ResolutionRule.MOBILE_OPERA_MINI));
+  }
+
+  @Test
+  void testResolveDevice_AnyDelegate() {
+    Device device = LiteDevice.from(DeviceType.TABLET, DevicePlatform.ANDROID);
+    DeviceResolver delegate = Mockito.mock(DeviceResolver.class);
+    when(delegate.resolveDevice(any())).thenReturn(device);
+    MeteredDeviceResolver resolver = new MeteredDeviceResolver(delegate, registry);
+
+    assertSame(device, resolver.resolveDevice(request(DESKTOP_USER_AGENT)));
+    assertEquals(1, deviceCount("tablet", "android"));
+    assertEquals(0, ruleCount(ResolutionRule.NONE));
+  }
+
+  private double deviceCount(String type, String platform) {
+    return registry
+        .get(MeteredDeviceResolver.DEVICES_METRIC)
+        .tag("type", type)
+        .tag("platform", platform)
+        .counter()
+        .count();
+  }
+
+  private double ruleCount(ResolutionRule rule) {
+    return registry
+        .get(MeteredDeviceResolver.RULES_METRIC)
+        .tag("rule", rule.name().toLowerCase())
+        .counter()
+        .count();
+  }
+
+  private static MockHttpServletRequest request(String userAgent) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("User-Agent", userAgent);
+    return request;
+  }
+}
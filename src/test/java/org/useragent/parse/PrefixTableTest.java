@@ -0,0 +1,42 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PrefixTableTest {
+
+  private final PrefixTable table =
+      PrefixTable.compile(List.of("noki", "sams", "xda ", "winw", "winw", "mot-", "ÿdev"));
+
+  @Test
+  void testMatches_FoldsCase() {
+    assertTrue(table.matches("Nokia6300/2.0 (05.00) Profile/MIDP-2.0"));
+    assertTrue(table.matches("SAMSUNG-SGH-E250/1.0"));
+    assertTrue(table.matches("xda device"));
+    assertTrue(table.matches("MOT-V3"));
+  }
+
+  @Test
+  void testMatches_NoMatch() {
+    assertFalse(table.matches("Mozilla/5.0 (Windows NT 10.0; Win64; x64)"));
+    assertFalse(table.matches("nok"));
+    assertFalse(table.matches(""));
+  }
+
+  @Test
+  void testMatches_NonAsciiPrefix() {
+    assertTrue(table.matches("ŸDEV/1.0"));
+    assertFalse(table.matches("Ÿdex/1.0"));
+  }
+
+  @Test
+  void testMatches_IgnoresPrefixesThatCannotMatch() {
+    PrefixTable table = PrefixTable.compile(List.of("Noki", "nokia", "sa"));
+
+    assertFalse(table.matches("Nokia6300/2.0"));
+    assertFalse(table.matches("sams"));
+  }
+}
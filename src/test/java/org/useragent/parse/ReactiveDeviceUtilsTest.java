@@ -0,0 +1,49 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+class ReactiveDeviceUtilsTest {
+
+  private MockServerWebExchange exchange;
+
+  private Device device;
+
+  @BeforeEach
+  public void setUp() {
+    device = LiteDevice.from(DeviceType.TABLET, DevicePlatform.IOS);
+    exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+  }
+
+  @Test
+  void testGetCurrentDevice() {
+    exchange.getAttributes().put(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE, device);
+
+    assertEquals(device, ReactiveDeviceUtils.getCurrentDevice(exchange));
+    assertEquals(device, ReactiveDeviceUtils.getRequiredCurrentDevice(exchange));
+  }
+
+  @Test
+  void testGetCurrentDevice_NoCurrentDevice() {
+    assertNull(ReactiveDeviceUtils.getCurrentDevice(exchange));
+  }
+
+  @Test
+  void testGetRequiredCurrentDevice_NoCurrentDevice() {
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class,
+            () -> ReactiveDeviceUtils.getRequiredCurrentDevice(exchange));
+
+    assertEquals(
+        "No current device is set in this exchange and one is required - have you configured a"
+            + " DeviceResolverWebFilter?",
+        exception.getMessage());
+  }
+}
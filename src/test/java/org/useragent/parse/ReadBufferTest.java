@@ -0,0 +1,42 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ReadBufferTest {
+
+  @Test
+  void testRecord_AsksForDrainWhenStripeIsFull() {
+    ReadBuffer buffer = new ReadBuffer();
+
+    for (int i = 0; i < ReadBuffer.STRIPE_SIZE - 1; i++) {
+      assertFalse(buffer.record("key" + i));
+    }
+    assertTrue(buffer.record("last"));
+    assertTrue(buffer.record("dropped"));
+
+    List<Object> drained = new ArrayList<>();
+    buffer.drain(drained::add);
+    assertEquals(ReadBuffer.STRIPE_SIZE, drained.size());
+    assertEquals("key0", drained.get(0));
+    assertEquals("last", drained.get(ReadBuffer.STRIPE_SIZE - 1));
+  }
+
+  @Test
+  void testDrain_EmptiesTheBuffer() {
+    ReadBuffer buffer = new ReadBuffer();
+    buffer.record("key");
+    buffer.drain(key -> {});
+
+    List<Object> drained = new ArrayList<>();
+    buffer.drain(drained::add);
+
+    assertEquals(List.of(), drained);
+    assertFalse(buffer.record("key"));
+  }
+}
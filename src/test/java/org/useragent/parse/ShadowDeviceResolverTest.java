@@ -0,0 +1,132 @@
+package org.useragent.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ShadowDeviceResolverTest {
+
+  private static final String IPHONE_USER_AGENT =
+      "Mozilla/5.0 (iPhone; CPU iPhone OS 14_4 like Mac OS X) AppleWebKit/605.1.15"
+          + " (KHTML, like Gecko) Version/14.0.3 Mobile/15E148 Safari/604.1";
+
+  private static final String KAIOS_USER_AGENT = "Mozilla/5.0 (X11; rv:48.0) KaiOS/2.5";
+
+  @Test
+  void testResolveDevice_RecordsDisagreements() throws InterruptedException {
+    LiteUserAgentResolver candidate = new LiteUserAgentResolver();
+    candidate.setRules(new DeviceRules(null, List.of("kaios"), null, null, null, false));
+
+    try (ShadowDeviceResolver resolver =
+        new ShadowDeviceResolver(new LiteDeviceResolver(), candidate, 1.0)) {
+      assertSame(LiteDevice.NORMAL_INSTANCE, resolver.resolveDevice(request(KAIOS_USER_AGENT)));
+      assertTrue(resolver.resolveDevice(request(IPHONE_USER_AGENT)).isMobile());
+      await(() -> resolver.getEvaluatedCount() == 2);
+
+      assertEquals(2, resolver.getSampleCount());
+      assertEquals(1, resolver.getDisagreementCount());
+      List<ShadowDeviceResolver.Disagreement> disagreements = resolver.getDisagreements();
+      assertEquals(1, disagreements.size());
+      assertEquals(KAIOS_USER_AGENT, disagreements.get(0).getUserAgent());
+      assertSame(LiteDevice.NORMAL_INSTANCE, disagreements.get(0).getPrimary());
+      assertSame(LiteDevice.MOBILE_INSTANCE, disagreements.get(0).getCandidate());
+      assertTrue(resolver.getCandidateMeanNanos() > 0);
+    }
+  }
+
+  @Test
+  void testResolveDevice_KeepsLatestDisagreements() throws InterruptedException {
+    LiteUserAgentResolver candidate = new LiteUserAgentResolver();
+    candidate.setRules(new DeviceRules(null, List.of("kaios"), null, null, null, false));
+
+    try (ShadowDeviceResolver resolver =
+        new ShadowDeviceResolver(new LiteDeviceResolver(), candidate, 1.0, 16, 2)) {
+      for (int i = 0; i < 5; i++) {
+        resolver.resolveDevice(request(KAIOS_USER_AGENT + " " + i));
+      }
+      await(() -> resolver.getEvaluatedCount() == 5);
+
+      assertEquals(5, resolver.getDisagreementCount());
+      List<ShadowDeviceResolver.Disagreement> disagreements = resolver.getDisagreements();
+      assertEquals(2, disagreements.size());
+      assertEquals(KAIOS_USER_AGENT + " 3", disagreements.get(0).getUserAgent());
+      assertEquals(KAIOS_USER_AGENT + " 4", disagreements.get(1).getUserAgent());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testResolveDevice_DropsSamplesWhenCandidateIsBehind() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    UserAgentResolver candidate = Mockito.mock(UserAgentResolver.class);
+    when(candidate.resolveDevice(any(String.class), any(), any(HeaderAccessor.class)))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return LiteDevice.from(DeviceType.MOBILE, DevicePlatform.IOS);
+            });
+
+    try (ShadowDeviceResolver resolver =
+        new ShadowDeviceResolver(new LiteDeviceResolver(), candidate, 1.0, 1, 16)) {
+      resolver.resolveDevice(request(IPHONE_USER_AGENT));
+      started.await();
+      for (int i = 0; i < 4; i++) {
+        assertTrue(resolver.resolveDevice(request(IPHONE_USER_AGENT)).isMobile());
+      }
+
+      assertEquals(5, resolver.getSampleCount());
+      assertEquals(3, resolver.getDroppedCount());
+      release.countDown();
+      await(() -> resolver.getEvaluatedCount() == 2);
+      assertEquals(0, resolver.getDisagreementCount());
+    }
+  }
+
+  @Test
+  void testResolveDevice_NoSampling() {
+    UserAgentResolver candidate = Mockito.mock(UserAgentResolver.class);
+
+    try (ShadowDeviceResolver resolver =
+        new ShadowDeviceResolver(new LiteDeviceResolver(), candidate, 0)) {
+      assertTrue(resolver.resolveDevice(request(IPHONE_USER_AGENT)).isMobile());
+
+      assertEquals(0, resolver.getSampleCount());
+      Mockito.verifyNoInteractions(candidate);
+    }
+  }
+
+  @Test
+  void testInvalidSampleRate() {
+    UserAgentResolver candidate = new LiteUserAgentResolver();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ShadowDeviceResolver(new LiteDeviceResolver(), candidate, 1.5));
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.sleep(5);
+    }
+  }
+
+  private static MockHttpServletRequest request(String userAgent) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("User-Agent", userAgent);
+    return request;
+  }
+}